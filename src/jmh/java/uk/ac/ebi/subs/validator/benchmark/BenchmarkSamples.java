@@ -0,0 +1,43 @@
+package uk.ac.ebi.subs.validator.benchmark;
+
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+import uk.ac.ebi.subs.data.submittable.Sample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+
+/**
+ * Generators of benchmark input, built on top of the {@link uk.ac.ebi.subs.validator.TestUtils} test fixtures.
+ */
+final class BenchmarkSamples {
+
+    private BenchmarkSamples() {
+    }
+
+    /**
+     * @param relationshipCount number of (valid) sample relationships of the sample
+     * @param attributeCount number of attributes of the sample, on top of the one added by the test fixtures
+     */
+    static Sample sample(int relationshipCount, int attributeCount) {
+        Sample sample = generateSample("benchmarkSample");
+
+        List<SampleRelationship> relationships = new ArrayList<>(relationshipCount);
+        for (int i = 0; i < relationshipCount; i++) {
+            relationships.add(generateSampleRelationship("SAMEA" + (100000 + i), "derived from", null));
+        }
+        sample.setSampleRelationships(relationships);
+
+        for (int i = 0; i < attributeCount; i++) {
+            Attribute attribute = new Attribute();
+            attribute.setValue("value " + i);
+            sample.getAttributes().put("attribute " + i, Collections.singletonList(attribute));
+        }
+
+        return sample;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.ebi.subs.validator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistLoader;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistRegistry;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link ChecklistRule} against the bundled {@code biosamples-minimal} checklist, as the number of
+ * attributes of the sample grows. It should grow linearly with the attribute count.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChecklistBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int attributeCount;
+
+    private ChecklistRule rule;
+    private Sample sample;
+
+    @Setup
+    public void setUp() {
+        ChecklistLoader loader = new ChecklistLoader(new PathMatchingResourcePatternResolver(), new ObjectMapper(),
+                "classpath:checklists/");
+        rule = new ChecklistRule(new ChecklistRegistry(loader, 0), "checklist", "biosamples-minimal");
+
+        sample = BenchmarkSamples.sample(0, attributeCount);
+        put(sample, "organism", "Homo sapiens", null);
+        put(sample, "collection date", "2019-02-28", null);
+        put(sample, "age", "42", "years");
+    }
+
+    @Benchmark
+    public SampleValidationContext validateAttributes() {
+        SampleValidationContext context = new SampleValidationContext(sample);
+        rule.validate(context);
+        return context;
+    }
+
+    private static void put(Sample sample, String name, String value, String units) {
+        Attribute attribute = new Attribute();
+        attribute.setValue(value);
+        attribute.setUnits(units);
+        sample.getAttributes().put(name, Collections.singletonList(attribute));
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.ebi.subs.validator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+/**
+ * The listener's serialization path: deserializing an incoming {@link SampleValidationMessageEnvelope}
+ * and serializing the outgoing {@link SingleValidationResultsEnvelope}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnvelopeSerializationBenchmark {
+
+    @Param({"0", "1000"})
+    private int relationshipCount;
+
+    @Param({"0", "5000"})
+    private int attributeCount;
+
+    private ObjectMapper objectMapper;
+    private byte[] sampleEnvelopeJson;
+    private SingleValidationResultsEnvelope resultsEnvelope;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        BiosamplesValidator validator = generateBiosamplesValidator();
+        sampleEnvelopeJson = objectMapper.writeValueAsBytes(
+                generateValidationMessageEnvelope(BenchmarkSamples.sample(relationshipCount, attributeCount)));
+        resultsEnvelope = validator.validateSample(objectMapper.readValue(sampleEnvelopeJson, SampleValidationMessageEnvelope.class));
+    }
+
+    @Benchmark
+    public SampleValidationMessageEnvelope deserializeSampleEnvelope() throws IOException {
+        return objectMapper.readValue(sampleEnvelopeJson, SampleValidationMessageEnvelope.class);
+    }
+
+    @Benchmark
+    public byte[] serializeResultsEnvelope() throws IOException {
+        return objectMapper.writeValueAsBytes(resultsEnvelope);
+    }
+}
@@ -0,0 +1,98 @@
+package uk.ac.ebi.subs.validator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.results.CompactResultsCodec;
+import uk.ac.ebi.subs.validator.biosamples.results.ResultsEncoding;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+/**
+ * Encoding and decoding a {@link SingleValidationResultsEnvelope} as JSON, and in the compact Smile and CBOR documents.
+ * The encoded sizes are printed when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultsEncodingBenchmark {
+
+    /**
+     * Number of failing relationships of the sample, each adding a warning to the results.
+     */
+    @Param({"0", "10", "100"})
+    private int warningCount;
+
+    private ObjectMapper objectMapper;
+    private CompactResultsCodec smileCodec;
+    private CompactResultsCodec cborCodec;
+
+    private SingleValidationResultsEnvelope envelope;
+    private byte[] json;
+    private byte[] smile;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        smileCodec = new CompactResultsCodec(ResultsEncoding.SMILE);
+        cborCodec = new CompactResultsCodec(ResultsEncoding.CBOR);
+
+        Sample sample = BenchmarkSamples.sample(0, 0);
+        List<SampleRelationship> relationships = new ArrayList<>(warningCount);
+        for (int i = 0; i < warningCount; i++) {
+            relationships.add(generateSampleRelationship("SAMEA" + (100000 + i), "nature " + i, null));
+        }
+        sample.setSampleRelationships(relationships);
+        envelope = generateBiosamplesValidator().validateSample(generateValidationMessageEnvelope(sample));
+
+        json = objectMapper.writeValueAsBytes(envelope);
+        smile = smileCodec.encode(envelope);
+        cbor = cborCodec.encode(envelope);
+        System.out.printf("%n%d warnings: JSON %d bytes, Smile %d bytes, CBOR %d bytes%n",
+                warningCount, json.length, smile.length, cbor.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() throws IOException {
+        return smileCodec.encode(envelope);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cborCodec.encode(envelope);
+    }
+
+    @Benchmark
+    public SingleValidationResultsEnvelope decodeJson() throws IOException {
+        return objectMapper.readValue(json, SingleValidationResultsEnvelope.class);
+    }
+
+    @Benchmark
+    public SingleValidationResultsEnvelope decodeSmile() throws IOException {
+        return smileCodec.decode(smile);
+    }
+
+    @Benchmark
+    public SingleValidationResultsEnvelope decodeCbor() throws IOException {
+        return cborCodec.decode(cbor);
+    }
+}
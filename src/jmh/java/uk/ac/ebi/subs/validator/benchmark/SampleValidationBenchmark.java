@@ -0,0 +1,46 @@
+package uk.ac.ebi.subs.validator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.ValidationMessageEnvelope;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+/**
+ * Throughput, latency and (with the gc profiler) allocation rate of {@link BiosamplesValidator#validateSample}.
+ *
+ * A relationship count of 0 with no extra attributes is the clean sample case.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SampleValidationBenchmark {
+
+    @Param({"0", "10", "1000"})
+    private int relationshipCount;
+
+    @Param({"0", "5000"})
+    private int attributeCount;
+
+    private BiosamplesValidator validator;
+    private ValidationMessageEnvelope envelope;
+
+    @Setup
+    public void setUp() {
+        validator = generateBiosamplesValidator();
+        envelope = generateValidationMessageEnvelope(BenchmarkSamples.sample(relationshipCount, attributeCount));
+    }
+
+    @Benchmark
+    public SingleValidationResultsEnvelope validateSample() {
+        return validator.validateSample(envelope);
+    }
+}
@@ -0,0 +1,62 @@
+package uk.ac.ebi.subs.validator.loadtest;
+
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-memory Qpid Broker-J, speaking AMQP 0-9-1 on a free local port with the guest/guest account,
+ * so the load test needs no RabbitMQ.
+ */
+class EmbeddedAmqpBroker implements AutoCloseable {
+
+    private static final String INITIAL_CONFIGURATION = "load-test-broker.json";
+
+    private final SystemLauncher systemLauncher = new SystemLauncher();
+    private final int port;
+    private final Path workDirectory;
+
+    private EmbeddedAmqpBroker(int port, Path workDirectory) {
+        this.port = port;
+        this.workDirectory = workDirectory;
+    }
+
+    static EmbeddedAmqpBroker start() throws Exception {
+        EmbeddedAmqpBroker broker = new EmbeddedAmqpBroker(freePort(), Files.createTempDirectory("qpid-load-test"));
+        broker.startup();
+        return broker;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    private void startup() throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION,
+                EmbeddedAmqpBroker.class.getClassLoader().getResource(INITIAL_CONFIGURATION).toExternalForm());
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.QPID_WORK_DIR, workDirectory.toString());
+        attributes.put(SystemConfig.CONTEXT, Collections.singletonMap("qpid.amqp_port", port));
+        systemLauncher.startup(attributes);
+    }
+
+    @Override
+    public void close() {
+        systemLauncher.shutdown();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.ebi.subs.validator.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timeline and the summary of a load test run: throughput, end-to-end latency percentiles and broker backlog.
+ */
+class LoadTestReport {
+
+    private final PrintStream out;
+    private final long startNanos = System.nanoTime();
+
+    private long lastSampleNanos = startNanos;
+    private long lastCompleted;
+    private long peakBacklog;
+
+    LoadTestReport(PrintStream out) {
+        this.out = out;
+        out.println(String.format("%8s %10s %10s %10s %10s %10s %10s %10s",
+                "t(s)", "published", "completed", "results/s", "backlog", "p50(ms)", "p99(ms)", "p999(ms)"));
+    }
+
+    void sample(long published, long completed, long backlog, Histogram intervalLatencies) {
+        long now = System.nanoTime();
+        double intervalSeconds = (now - lastSampleNanos) / 1e9;
+        double throughput = intervalSeconds == 0 ? 0 : (completed - lastCompleted) / intervalSeconds;
+        peakBacklog = Math.max(peakBacklog, backlog);
+
+        out.println(String.format("%8.1f %10d %10d %10.1f %10d %10.1f %10.1f %10.1f",
+                (now - startNanos) / 1e9, published, completed, throughput, backlog,
+                millis(intervalLatencies, 50), millis(intervalLatencies, 99), millis(intervalLatencies, 99.9)));
+
+        lastSampleNanos = now;
+        lastCompleted = completed;
+    }
+
+    /**
+     * @return the overall throughput, in results per second
+     */
+    double summarise(int requested, long completed, long errors, long unmatched, Histogram latencies) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        double throughput = elapsedMillis == 0 ? 0 : completed * 1000d / elapsedMillis;
+
+        out.println();
+        out.println(String.format("%d of %d requests validated in %d ms: %.1f results/s, %d with errors, %d unmatched results",
+                completed, requested, elapsedMillis, throughput, errors, unmatched));
+        out.println(String.format("End-to-end latency (ms): p50 %.1f, p99 %.1f, p999 %.1f, max %.1f",
+                millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9),
+                latencies.getMaxValue() / 1e6));
+        out.println(String.format("Peak backlog of the validation queue: %d messages", peakBacklog));
+        return throughput;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
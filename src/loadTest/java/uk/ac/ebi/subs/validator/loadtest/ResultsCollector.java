@@ -0,0 +1,91 @@
+package uk.ac.ebi.subs.validator.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Matches the published results to the requests they answer by their validation result UUID,
+ * and records the end-to-end latency of each request, from just before it was published to its results arriving.
+ */
+class ResultsCollector implements MessageListener {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final MessageConverter messageConverter;
+    private final ConcurrentMap<String, Long> publishedNanos = new ConcurrentHashMap<>();
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_LATENCY_NANOS, 3);
+    private final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_LATENCY_NANOS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final CountDownLatch allCompleted;
+
+    private Histogram intervalHistogram;
+
+    ResultsCollector(MessageConverter messageConverter, int expectedResults) {
+        this.messageConverter = messageConverter;
+        this.allCompleted = new CountDownLatch(expectedResults);
+    }
+
+    void published(String validationResultUuid, long nanos) {
+        publishedNanos.put(validationResultUuid, nanos);
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        long receivedNanos = System.nanoTime();
+        SingleValidationResultsEnvelope envelope = (SingleValidationResultsEnvelope) messageConverter.fromMessage(message);
+        Long sentNanos = publishedNanos.remove(envelope.getValidationResultUUID());
+        if (sentNanos == null) {
+            unmatched.increment();
+            return;
+        }
+
+        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_LATENCY_NANOS, receivedNanos - sentNanos));
+        if (message.getMessageProperties().getReceivedRoutingKey().endsWith("error")) {
+            errors.increment();
+        }
+        completed.increment();
+        allCompleted.countDown();
+    }
+
+    boolean awaitAll(long timeoutSeconds) throws InterruptedException {
+        return allCompleted.await(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the latencies recorded since the previous call, which are also added to {@link #getLatencies()}
+     */
+    synchronized Histogram intervalLatencies() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        latencies.add(intervalHistogram);
+        return intervalHistogram;
+    }
+
+    synchronized Histogram getLatencies() {
+        intervalLatencies();
+        return latencies;
+    }
+
+    long getCompleted() {
+        return completed.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getUnmatched() {
+        return unmatched.sum();
+    }
+}
@@ -0,0 +1,194 @@
+package uk.ac.ebi.subs.validator.loadtest;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.messaging.Exchanges;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidatorApplication;
+import uk.ac.ebi.subs.validator.biosamples.results.ResultsEncoding;
+import uk.ac.ebi.subs.validator.biosamples.results.ValidationResultsMessageConverter;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_BIOSAMPLES_SAMPLE_VALIDATION;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_ERROR;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_SUCCESS;
+
+/**
+ * Runs the validator end to end against an embedded AMQP broker under load.
+ *
+ * Synthetic validation requests are published to the submissions exchange with the sample validation routing key,
+ * the results are consumed from the exchange, and the throughput, the end-to-end latency percentiles and the backlog
+ * of the validation queue are printed every {@code loadtest.report-interval-ms}, followed by a summary.
+ *
+ * The load is set with system properties:
+ * <ul>
+ *     <li>{@code loadtest.messages}: number of requests to publish</li>
+ *     <li>{@code loadtest.rate}: requests published per second, 0 to publish as fast as possible</li>
+ *     <li>{@code loadtest.attributes}: number of attributes of each sample</li>
+ *     <li>{@code loadtest.error-ratio}: share of the samples without an alias, so their results are errors</li>
+ *     <li>{@code loadtest.submissions}: number of submissions the samples are spread over</li>
+ *     <li>{@code loadtest.timeout-seconds}: how long to wait for all the results</li>
+ *     <li>{@code loadtest.min-throughput}: results per second under which the run fails</li>
+ * </ul>
+ * The program arguments are passed on to the validator, e.g. {@code --biosamples.validator.batch.enabled=true}.
+ *
+ * The run exits with 1 if a result is missing or the throughput is under {@code loadtest.min-throughput}.
+ */
+public class ValidationLoadTest {
+
+    private static final String RESULTS_QUEUE = "biosamples-validator-load-test.results";
+
+    public static void main(String[] args) throws Exception {
+        Properties settings = System.getProperties();
+        int messages = Integer.parseInt(settings.getProperty("loadtest.messages", "10000"));
+        double rate = Double.parseDouble(settings.getProperty("loadtest.rate", "0"));
+        int attributes = Integer.parseInt(settings.getProperty("loadtest.attributes", "10"));
+        double errorRatio = Double.parseDouble(settings.getProperty("loadtest.error-ratio", "0.1"));
+        int submissions = Integer.parseInt(settings.getProperty("loadtest.submissions", "10"));
+        long reportIntervalMillis = Long.parseLong(settings.getProperty("loadtest.report-interval-ms", "1000"));
+        long timeoutSeconds = Long.parseLong(settings.getProperty("loadtest.timeout-seconds", "600"));
+        double minThroughput = Double.parseDouble(settings.getProperty("loadtest.min-throughput", "0"));
+
+        boolean passed;
+        try (EmbeddedAmqpBroker broker = EmbeddedAmqpBroker.start();
+             ConfigurableApplicationContext validator = startValidator(broker.getPort(), args)) {
+            passed = run(broker.getPort(), validator.getBean(RabbitTemplate.class), messages, rate, attributes,
+                    errorRatio, submissions, reportIntervalMillis, timeoutSeconds, minThroughput);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext startValidator(int port, String[] args) {
+        return new SpringApplicationBuilder(BiosamplesValidatorApplication.class)
+                .web(false)
+                .properties(
+                        "spring.rabbitmq.host=localhost",
+                        "spring.rabbitmq.port=" + port,
+                        "spring.rabbitmq.username=guest",
+                        "spring.rabbitmq.password=guest",
+                        "spring.boot.admin.auto-registration=false")
+                .run(args);
+    }
+
+    private static boolean run(int port, RabbitTemplate validatorTemplate, int messages, double rate, int attributes,
+                               double errorRatio, int submissions, long reportIntervalMillis, long timeoutSeconds,
+                               double minThroughput) throws InterruptedException {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory("localhost", port);
+        connectionFactory.setUsername("guest");
+        connectionFactory.setPassword("guest");
+
+        RabbitTemplate loadTemplate = new RabbitTemplate(connectionFactory);
+        loadTemplate.setMessageConverter(validatorTemplate.getMessageConverter());
+
+        AmqpAdmin amqpAdmin = new RabbitAdmin(connectionFactory);
+        Queue resultsQueue = new Queue(RESULTS_QUEUE, false, false, true);
+        TopicExchange submissionsExchange = new TopicExchange(Exchanges.SUBMISSIONS);
+        amqpAdmin.declareQueue(resultsQueue);
+        amqpAdmin.declareBinding(bind(resultsQueue, submissionsExchange, EVENT_VALIDATION_SUCCESS));
+        amqpAdmin.declareBinding(bind(resultsQueue, submissionsExchange, EVENT_VALIDATION_ERROR));
+
+        ResultsCollector collector = new ResultsCollector(new ValidationResultsMessageConverter(ResultsEncoding.JSON,
+                validatorTemplate.getMessageConverter()), messages);
+        SimpleMessageListenerContainer resultsContainer = new SimpleMessageListenerContainer(connectionFactory);
+        resultsContainer.setQueueNames(RESULTS_QUEUE);
+        resultsContainer.setConcurrentConsumers(2);
+        resultsContainer.setPrefetchCount(250);
+        resultsContainer.setMessageListener(collector);
+        resultsContainer.start();
+
+        AtomicLong published = new AtomicLong();
+        LoadTestReport report = new LoadTestReport(System.out);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(() -> report.sample(published.get(), collector.getCompleted(),
+                backlog(amqpAdmin), collector.intervalLatencies()),
+                reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                if (rate > 0) {
+                    long dueNanos = startNanos + (long) (i * 1e9 / rate);
+                    LockSupport.parkNanos(dueNanos - System.nanoTime());
+                }
+                SampleValidationMessageEnvelope envelope = envelope(i, attributes, errorRatio, submissions);
+                collector.published(envelope.getValidationResultUUID(), System.nanoTime());
+                loadTemplate.convertAndSend(Exchanges.SUBMISSIONS, EVENT_BIOSAMPLES_SAMPLE_VALIDATION, envelope);
+                published.incrementAndGet();
+            }
+
+            boolean allCompleted = collector.awaitAll(timeoutSeconds);
+            double throughput = report.summarise(messages, collector.getCompleted(), collector.getErrors(),
+                    collector.getUnmatched(), collector.getLatencies());
+
+            if (!allCompleted) {
+                System.out.println(String.format("FAILED: only %d of %d results arrived within %d s",
+                        collector.getCompleted(), messages, timeoutSeconds));
+                return false;
+            }
+            if (throughput < minThroughput) {
+                System.out.println(String.format("FAILED: %.1f results/s is under the minimum of %.1f",
+                        throughput, minThroughput));
+                return false;
+            }
+            return true;
+        } finally {
+            reporter.shutdownNow();
+            resultsContainer.stop();
+            connectionFactory.destroy();
+        }
+    }
+
+    private static SampleValidationMessageEnvelope envelope(int index, int attributes, double errorRatio, int submissions) {
+        Sample sample = generateSample("loadTestSample" + index);
+        sample.setId(UUID.randomUUID().toString());
+        if ((index % 1000) < errorRatio * 1000) {
+            sample.setAlias(null);
+        }
+        for (int i = 0; i < attributes; i++) {
+            Attribute attribute = new Attribute();
+            attribute.setValue("value " + i);
+            sample.getAttributes().put("attribute " + i, Collections.singletonList(attribute));
+        }
+
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(1);
+        envelope.setSubmissionId("load-test-submission-" + (index % submissions));
+        envelope.setEntityToValidate(sample);
+        return envelope;
+    }
+
+    private static Binding bind(Queue queue, TopicExchange exchange, String routingKey) {
+        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    }
+
+    private static long backlog(AmqpAdmin amqpAdmin) {
+        Properties queueProperties = amqpAdmin.getQueueProperties(BIOSAMPLES_SAMPLE_VALIDATION);
+        if (queueProperties == null) {
+            return 0;
+        }
+        Object messageCount = queueProperties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT);
+        return messageCount instanceof Number ? ((Number) messageCount).longValue() : 0;
+    }
+}
@@ -1,156 +1,226 @@
 package uk.ac.ebi.subs.validator.biosamples;
 
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import uk.ac.ebi.subs.data.component.Attribute;
 import uk.ac.ebi.subs.data.component.SampleRelationship;
 import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.cache.ValidationResultCache;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.relationships.RelationshipTargetResolver;
+import uk.ac.ebi.subs.validator.biosamples.relationships.TargetResolution;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleAliasRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
 import uk.ac.ebi.subs.validator.data.SingleValidationResult;
 import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
 import uk.ac.ebi.subs.validator.data.ValidationMessageEnvelope;
 import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
 import uk.ac.ebi.subs.validator.data.structures.ValidationAuthor;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.biosamples.rules.SampleRelationshipsRule.SAMPLE_RELATIONSHIP_TARGET_NOT_FOUND;
+import static uk.ac.ebi.subs.validator.biosamples.rules.SampleRelationshipsRule.SAMPLE_RELATIONSHIP_TARGET_NOT_VERIFIED;
 
 /**
  * A Spring @Service component to validate sample.
  * It validates the sample's alias, release date and its relationships to other samples
  * that already exists in BioSamples database.
+ *
+ * The checks themselves are {@link SampleValidationRule} beans, collected once at startup
+ * and run in order against every sample.
+ * When a {@link RelationshipTargetResolver} is configured, {@link #validateSampleAsync} also checks that the target
+ * accessions of the relationships exist in BioSamples.
  */
 @Service
 public class BiosamplesValidator {
     private static Logger logger = LoggerFactory.getLogger(BiosamplesValidator.class);
 
-    private final List<String> relationshipNatureValues = Arrays.asList("derived from", "child of", "same as", "recurated from"); // FIXME - fill list from properties
+    public final String NAME_MISSING = SampleAliasRule.NAME_MISSING;
 
-    public final String NAME_MISSING = "A sample must have an alias.";
+    private final SampleValidationRule[] cacheableRules;
 
-    private final String MISSING_DATE_VALUE = "A sample must have a release date.";
+    private final SampleValidationRule[] uncacheableRules;
 
-    private final String SAMPLE_RELATIONSHIP_NULL = "When present, a SampleRelationship must not be null.";
-    private final String SAMPLE_RELATIONSHIP_NATURE_MISSING = "A SampleRelationship must have a RelationshipNature.";
-    private final String SAMPLE_RELATIONSHIP_NATURE_UNKNOWN = "SampleRelationship nature: [%s] unknown, please verify if you wish to proceed.";
-    private final String SAMPLE_RELATIONSHIP_TARGET_MISSING = "A SampleRelationship must have a target sample accession or alias.";
+    private Timer[] cacheableRuleTimers;
 
-    public SingleValidationResultsEnvelope validateSample(ValidationMessageEnvelope envelope) {
-        Sample sample = (Sample) envelope.getEntityToValidate();
+    private Timer[] uncacheableRuleTimers;
 
-        List<SingleValidationResult> singleValidationResults = new ArrayList<>();
+    private ValidationResultCache validationResultCache;
 
-        singleValidationResults.add(validateSampleName(sample));
-        singleValidationResults.add(validateReleaseDate(sample));
-        singleValidationResults.addAll(validateSampleRelationships(sample));
+    private RelationshipTargetResolver relationshipTargetResolver;
 
-        // List of errors and/or warnings
-        List errorsList = singleValidationResults.stream().filter(singleValidationResult -> !singleValidationResult.getValidationStatus().equals(SingleValidationResultStatus.Pass)).collect(Collectors.toList());
-        if (!errorsList.isEmpty()) {
-            return generateSingleValidationResultsEnvelope(errorsList, envelope);
-        } else {
-            return generateSingleValidationResultsEnvelope(Arrays.asList(generateDefaultSingleValidationResult(sample.getId())), envelope);
-        }
+    @Autowired
+    public BiosamplesValidator(List<SampleValidationRule> rules) {
+        this.cacheableRules = rules.stream().filter(SampleValidationRule::isCacheable).toArray(SampleValidationRule[]::new);
+        this.uncacheableRules = rules.stream().filter(rule -> !rule.isCacheable()).toArray(SampleValidationRule[]::new);
+        logger.info("Validating samples with {} rules", rules.size());
     }
 
     /**
-     * A name in the biosamples sample object is the same as the alias in the USI sample object.
-     * @param sample
-     *
+     * When a {@link ValidationResultCache} is configured, an unchanged sample gets the results
+     * of its previous validation, wrapped in an envelope of the current validation request.
+     * Only the results of {@link SampleValidationRule#isCacheable() cacheable} rules are cached.
      */
-    private SingleValidationResult validateSampleName(Sample sample) {
-        String alias = sample.getAlias();
-        SingleValidationResult singleValidationResult = generateDefaultSingleValidationResult(sample.getId());
+    @Autowired(required = false)
+    public void setValidationResultCache(ValidationResultCache validationResultCache) {
+        this.validationResultCache = validationResultCache;
+    }
 
-        if (alias == null || alias.isEmpty()) {
-            singleValidationResult.setValidationStatus(SingleValidationResultStatus.Error);
-            singleValidationResult.setMessage(NAME_MISSING);
-        }
-        return singleValidationResult;
+    /**
+     * When {@link ValidationMetrics} are available, the time spent in each rule is recorded.
+     */
+    @Autowired(required = false)
+    public void setValidationMetrics(ValidationMetrics validationMetrics) {
+        this.cacheableRuleTimers = ruleTimers(cacheableRules, validationMetrics);
+        this.uncacheableRuleTimers = ruleTimers(uncacheableRules, validationMetrics);
+    }
+
+    @Autowired(required = false)
+    public void setRelationshipTargetResolver(RelationshipTargetResolver relationshipTargetResolver) {
+        this.relationshipTargetResolver = relationshipTargetResolver;
     }
 
     /**
-     * Release date must always be present and never more than once.
-     * @param sample
+     * Validates the sample with all the rules, then resolves its relationship targets without blocking the calling thread.
+     * A target missing from BioSamples is an error, a target that could not be looked up is a warning.
      */
-    private SingleValidationResult validateReleaseDate(Sample sample) {
-        SingleValidationResult singleValidationResult = generateDefaultSingleValidationResult(sample.getId());
+    public CompletableFuture<SingleValidationResultsEnvelope> validateSampleAsync(ValidationMessageEnvelope envelope) {
+        SingleValidationResultsEnvelope singleValidationResultsEnvelope = validateSample(envelope);
 
-        LocalDate releaseDate = sample.getReleaseDate();
+        if (relationshipTargetResolver == null) {
+            return CompletableFuture.completedFuture(singleValidationResultsEnvelope);
+        }
 
-        if (releaseDate == null) {
-            singleValidationResult.setValidationStatus(SingleValidationResultStatus.Error);
-            singleValidationResult.setMessage(MISSING_DATE_VALUE);
-            return singleValidationResult;
+        Sample sample = (Sample) envelope.getEntityToValidate();
+        Set<String> targetAccessions = targetAccessions(sample);
+        if (targetAccessions.isEmpty()) {
+            return CompletableFuture.completedFuture(singleValidationResultsEnvelope);
         }
 
-        return singleValidationResult;
+        return relationshipTargetResolver.resolve(targetAccessions)
+                .thenApply(resolutions -> addTargetResults(singleValidationResultsEnvelope, sample, resolutions));
     }
 
-    /**
-     * Iterate over a List of SampleRelationship
-     * @param sample to get the {@link SampleRelationship} property from
-     */
-    private List<SingleValidationResult> validateSampleRelationships(Sample sample) {
-        List<SampleRelationship> sampleRelationshipList = sample.getSampleRelationships();
-        List<SingleValidationResult> singleValidationResults = new ArrayList<>();
-
-        for (SampleRelationship relationship : sampleRelationshipList) {
-            SingleValidationResult singleValidationResult = generateDefaultSingleValidationResult(sample.getId());
-            validateSampleRelationship(relationship, singleValidationResult);
-            singleValidationResults.add(singleValidationResult);
+    public SingleValidationResultsEnvelope validateSample(ValidationMessageEnvelope envelope) {
+        Sample sample = (Sample) envelope.getEntityToValidate();
+        String submissionId = envelope.getSubmissionId();
+
+        List<SingleValidationResult> singleValidationResults = validationResultCache == null
+                ? validate(sample, submissionId)
+                : validationResultCache.get(sample, cachedSample -> validate(cachedSample, submissionId));
+
+        if (uncacheableRules.length > 0) {
+            SampleValidationContext context = new SampleValidationContext(sample, submissionId);
+            runRules(context, uncacheableRules, uncacheableRuleTimers);
+            if (context.hasFailures()) {
+                singleValidationResults = mergeFailures(singleValidationResults, context.getFailures());
+            }
         }
 
-        return singleValidationResults;
+        return generateSingleValidationResultsEnvelope(singleValidationResults, envelope);
     }
 
-    /**
-     * If present, sample relationships must have a nature and target.
-     * @param sampleRelationship
-     */
-    private void validateSampleRelationship(SampleRelationship sampleRelationship, SingleValidationResult singleValidationResult) {
-        if (sampleRelationship != null) {
-
-            // Check for nature
-            if (sampleRelationship.getRelationshipNature() == null || sampleRelationship.getRelationshipNature().isEmpty()) {
-                singleValidationResult.setValidationStatus(SingleValidationResultStatus.Error);
-                singleValidationResult.setMessage(SAMPLE_RELATIONSHIP_NATURE_MISSING);
-                return;
-            }
+    private List<SingleValidationResult> validate(Sample sample, String submissionId) {
+        SampleValidationContext context = new SampleValidationContext(sample, submissionId);
+        runRules(context, cacheableRules, cacheableRuleTimers);
 
-            // Check for target
-            if (noAccession(sampleRelationship) && noAlias(sampleRelationship)) {
-                singleValidationResult.setValidationStatus(SingleValidationResultStatus.Error);
-                singleValidationResult.setMessage(SAMPLE_RELATIONSHIP_TARGET_MISSING);
-                return;
-            }
+        // List of errors and/or warnings
+        if (context.hasFailures()) {
+            return context.getFailures();
+        } else {
+            return Collections.singletonList(generatePassSingleValidationResult(sample.getId()));
+        }
+    }
 
-            // Check known nature
-            if (!relationshipNatureValues.contains(sampleRelationship.getRelationshipNature())) {
-                singleValidationResult.setValidationStatus(SingleValidationResultStatus.Warning);
-                singleValidationResult.setMessage(String.format(SAMPLE_RELATIONSHIP_NATURE_UNKNOWN, sampleRelationship.getRelationshipNature()));
+    private static void runRules(SampleValidationContext context, SampleValidationRule[] rules, Timer[] timers) {
+        if (timers == null) {
+            for (SampleValidationRule rule : rules) {
+                rule.validate(context);
             }
+            return;
+        }
 
-        } else {
-            singleValidationResult.setValidationStatus(SingleValidationResultStatus.Error);
-            singleValidationResult.setMessage(SAMPLE_RELATIONSHIP_NULL);
+        for (int i = 0; i < rules.length; i++) {
+            long start = System.nanoTime();
+            rules[i].validate(context);
+            timers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer[] ruleTimers(SampleValidationRule[] rules, ValidationMetrics validationMetrics) {
+        Timer[] timers = new Timer[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            timers[i] = validationMetrics.ruleTimer(rules[i]);
+        }
+        return timers;
+    }
+
+    private Set<String> targetAccessions(Sample sample) {
+        List<SampleRelationship> sampleRelationships = sample.getSampleRelationships();
+        if (sampleRelationships == null || sampleRelationships.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> targetAccessions = new LinkedHashSet<>();
+        for (SampleRelationship sampleRelationship : sampleRelationships) {
+            if (sampleRelationship != null && sampleRelationship.getAccession() != null
+                    && !sampleRelationship.getAccession().trim().isEmpty()) {
+                targetAccessions.add(sampleRelationship.getAccession().trim());
+            }
         }
+        return targetAccessions;
     }
 
-    private boolean noAccession(SampleRelationship sampleRelationship) {
-        return sampleRelationship.getAccession() == null || sampleRelationship.getAccession().trim().isEmpty();
+    private SingleValidationResultsEnvelope addTargetResults(SingleValidationResultsEnvelope singleValidationResultsEnvelope,
+                                                             Sample sample, Map<String, TargetResolution> resolutions) {
+        SampleValidationContext context = new SampleValidationContext(sample);
+        resolutions.forEach((accession, resolution) -> {
+            if (resolution == TargetResolution.MISSING) {
+                context.addError(SAMPLE_RELATIONSHIP_TARGET_NOT_FOUND, accession);
+            } else if (resolution == TargetResolution.UNKNOWN) {
+                context.addWarning(SAMPLE_RELATIONSHIP_TARGET_NOT_VERIFIED, accession);
+            }
+        });
+        if (!context.hasFailures()) {
+            return singleValidationResultsEnvelope;
+        }
+
+        List<SingleValidationResult> singleValidationResults = mergeFailures(
+                singleValidationResultsEnvelope.getSingleValidationResults(), context.getFailures());
+
+        return new SingleValidationResultsEnvelope(singleValidationResults, singleValidationResultsEnvelope.getValidationResultVersion(),
+                singleValidationResultsEnvelope.getValidationResultUUID(), ValidationAuthor.Biosamples);
     }
 
-    private boolean noAlias(SampleRelationship sampleRelationship){
-        return sampleRelationship.getAlias() == null || sampleRelationship.getAlias().trim().isEmpty();
+    /**
+     * Adds further failures to a list of results, dropping its Pass result if any.
+     * The results may be shared with the result cache, so they are copied rather than modified.
+     */
+    private List<SingleValidationResult> mergeFailures(List<SingleValidationResult> singleValidationResults,
+                                                       List<SingleValidationResult> failures) {
+        List<SingleValidationResult> merged = new ArrayList<>(singleValidationResults.size() + failures.size());
+        for (SingleValidationResult singleValidationResult : singleValidationResults) {
+            if (!singleValidationResult.getValidationStatus().equals(SingleValidationResultStatus.Pass)) {
+                merged.add(singleValidationResult);
+            }
+        }
+        merged.addAll(failures);
+        return merged;
     }
 
-    private SingleValidationResult generateDefaultSingleValidationResult(String sampleId) {
+    private SingleValidationResult generatePassSingleValidationResult(String sampleId) {
         SingleValidationResult result = new SingleValidationResult(ValidationAuthor.Biosamples, sampleId);
         result.setValidationStatus(SingleValidationResultStatus.Pass);
         return result;
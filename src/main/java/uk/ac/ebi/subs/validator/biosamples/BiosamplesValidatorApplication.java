@@ -3,14 +3,24 @@ package uk.ac.ebi.subs.validator.biosamples;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.system.ApplicationPidFileWriter;
-import org.springframework.context.annotation.ComponentScan;
+import uk.ac.ebi.subs.validator.biosamples.bulk.BulkValidationRunner;
+import uk.ac.ebi.subs.validator.biosamples.startup.ValidatorComponentScan;
 
-@SpringBootApplication
-@ComponentScan(basePackages = "uk.ac.ebi.subs.validator")
+/**
+ * Only the validator's own package is scanned here; the rest of the {@code uk.ac.ebi.subs.validator} tree is scanned
+ * by {@link ValidatorComponentScan}, unless in fast start mode.
+ */
+@SpringBootApplication(scanBasePackageClasses = BiosamplesValidatorApplication.class)
 public class BiosamplesValidatorApplication {
 
     public static void main(String[] args) {
         SpringApplication springApplication = new SpringApplication(BiosamplesValidatorApplication.class);
+
+        if (BulkValidationRunner.isBulkValidation(args)) {
+            springApplication.setAdditionalProfiles(BulkValidationRunner.BULK_PROFILE);
+            System.exit(SpringApplication.exit(springApplication.run(args)));
+        }
+
         ApplicationPidFileWriter applicationPidFileWriter = new ApplicationPidFileWriter();
         springApplication.addListeners( applicationPidFileWriter );
         springApplication.run(args);
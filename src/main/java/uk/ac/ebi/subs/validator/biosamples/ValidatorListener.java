@@ -1,58 +1,170 @@
 package uk.ac.ebi.subs.validator.biosamples;
 
+import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitMessagingTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import uk.ac.ebi.subs.messaging.Exchanges;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.logging.SampledLogger;
+import uk.ac.ebi.subs.validator.biosamples.messaging.DelayedRetry;
+import uk.ac.ebi.subs.validator.biosamples.messaging.LatestVersions;
+import uk.ac.ebi.subs.validator.biosamples.messaging.PendingValidation;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationRequestMessageConverter;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationResultsPublisher;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.scheduling.FairScheduler;
+import uk.ac.ebi.subs.validator.biosamples.scheduling.SampleCost;
 import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
-import uk.ac.ebi.subs.validator.data.SingleValidationResult;
 import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
-import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
-
-import java.util.List;
-import java.util.stream.Collectors;
 
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesMessagingConfiguration.VALIDATION_LISTENER_CONTAINER_FACTORY;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesMessagingConfiguration.VALIDATION_LISTENER_ID;
 import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
-import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_ERROR;
-import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_SUCCESS;
 
 /**
  * This is a listener to handle the validation of a sample.
  * It executes a validator against the BioSamples' standard.
  * It sends a success or error message after the validation has been executed.
+ *
+ * Messages are acknowledged manually once their results are sent, so the listener thread does not wait
+ * for the relationship targets to be resolved. A message that fails is handed to {@link DelayedRetry}.
+ * A message superseded by a newer version of its sample, see {@link LatestVersions}, is acknowledged without
+ * validating it, or without publishing its results if the newer version arrived while it was being validated.
+ * With a {@link FairScheduler}, the consumer threads only queue the validations, and its workers run them.
+ *
+ * When batch mode is switched on ({@code biosamples.validator.batch.enabled=true}) this listener is not created,
+ * the queue is consumed by {@link uk.ac.ebi.subs.validator.biosamples.batch.BatchValidatorListener} instead.
  */
 @Service
+@ConditionalOnProperty(name = "biosamples.validator.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class ValidatorListener {
     private static Logger logger = LoggerFactory.getLogger(ValidatorListener.class);
 
     @Autowired
     private BiosamplesValidator validator;
 
-    private RabbitMessagingTemplate rabbitMessagingTemplate;
+    private ValidationResultsPublisher validationResultsPublisher;
+
+    private ValidationRequestMessageConverter validationRequestMessageConverter;
+
+    private ValidationMetrics validationMetrics;
+
+    private DelayedRetry delayedRetry;
+
+    private LatestVersions latestVersions;
+
+    private FairScheduler fairScheduler;
+
+    private SampledLogger sampledLogger;
 
     @Autowired
-    public ValidatorListener(RabbitMessagingTemplate rabbitMessagingTemplate) {
-        this.rabbitMessagingTemplate = rabbitMessagingTemplate;
+    public ValidatorListener(ValidationResultsPublisher validationResultsPublisher,
+                             ValidationRequestMessageConverter validationRequestMessageConverter,
+                             ValidationMetrics validationMetrics, DelayedRetry delayedRetry, LatestVersions latestVersions,
+                             @Value("${biosamples.validator.logging.per-message-lines-per-second:10}") int perMessageLinesPerSecond) {
+        this.validationResultsPublisher = validationResultsPublisher;
+        this.validationRequestMessageConverter = validationRequestMessageConverter;
+        this.validationMetrics = validationMetrics;
+        this.delayedRetry = delayedRetry;
+        this.latestVersions = latestVersions;
+        this.sampledLogger = new SampledLogger(logger, perMessageLinesPerSecond);
     }
 
-    @RabbitListener(queues = BIOSAMPLES_SAMPLE_VALIDATION)
-    public void handleValidationRequest(SampleValidationMessageEnvelope envelope) {
-        logger.info("Received validation request on sample with id {}", envelope.getEntityToValidate().getId());
-
-        SingleValidationResultsEnvelope singleValidationResultsEnvelope = validator.validateSample(envelope);
+    /**
+     * When a {@link FairScheduler} is configured, validations run on its workers instead of the consumer threads.
+     */
+    @Autowired(required = false)
+    public void setFairScheduler(FairScheduler fairScheduler) {
+        this.fairScheduler = fairScheduler;
+    }
 
-        sendResults(singleValidationResultsEnvelope);
+    @RabbitListener(id = VALIDATION_LISTENER_ID, queues = BIOSAMPLES_SAMPLE_VALIDATION, containerFactory = VALIDATION_LISTENER_CONTAINER_FACTORY)
+    public void handleValidationRequest(Message message, Channel channel) {
+        long receivedNanos = validationMetrics.messageReceived();
+        try {
+            receive(message, channel, receivedNanos);
+        } finally {
+            // With a FairScheduler the validations run on its workers, which record their own busy time
+            if (fairScheduler == null) {
+                validationMetrics.consumerBusySince(receivedNanos);
+            }
+        }
     }
 
-    private void sendResults(SingleValidationResultsEnvelope envelope) {
-        List<SingleValidationResult> errorResults = envelope.getSingleValidationResults().stream().filter(svr -> svr.getValidationStatus().equals(SingleValidationResultStatus.Error)).collect(Collectors.toList());
-        if (errorResults.size() > 0) {
-            rabbitMessagingTemplate.convertAndSend(Exchanges.SUBMISSIONS, EVENT_VALIDATION_ERROR, envelope);
+    private void receive(Message message, Channel channel, long receivedNanos) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+
+        SampleValidationMessageEnvelope envelope;
+        try {
+            envelope = validationRequestMessageConverter.fromMessage(message);
+        } catch (RuntimeException e) {
+            logger.error("Could not convert message with delivery tag {}, rejecting it", deliveryTag, e);
+            PendingValidation.reject(channel, deliveryTag);
+            validationMetrics.messageHandled(receivedNanos);
+            return;
+        }
+
+        sampledLogger.info("Received validation request on sample with id {}", envelope.getEntityToValidate().getId());
+
+        latestVersions.received(envelope);
+        PendingValidation pendingValidation = new PendingValidation(envelope, message, channel, receivedNanos);
+        if (fairScheduler != null) {
+            fairScheduler.submit(envelope.getSubmissionId(), SampleCost.of((Sample) envelope.getEntityToValidate()),
+                    () -> validate(pendingValidation));
         } else {
-            rabbitMessagingTemplate.convertAndSend(Exchanges.SUBMISSIONS, EVENT_VALIDATION_SUCCESS, envelope);
+            validate(pendingValidation);
+        }
+    }
+
+    private void validate(PendingValidation pendingValidation) {
+        SampleValidationMessageEnvelope envelope = pendingValidation.getEnvelope();
+        long receivedNanos = pendingValidation.getReceivedNanos();
+
+        if (latestVersions.isSuperseded(envelope)) {
+            pendingValidation.ack();
+            validationMetrics.supersededBeforeValidation();
+            validationMetrics.messageHandled(receivedNanos);
+            return;
+        }
+
+        try {
+            validator.validateSampleAsync(envelope).whenComplete((singleValidationResultsEnvelope, throwable) -> {
+                if (throwable != null) {
+                    logger.error("Could not validate sample with id {}", envelope.getEntityToValidate().getId(), throwable);
+                    delayedRetry.retryOrReject(pendingValidation);
+                } else {
+                    sendResults(singleValidationResultsEnvelope, pendingValidation);
+                }
+                validationMetrics.messageHandled(receivedNanos);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not validate sample with id {}", envelope.getEntityToValidate().getId(), e);
+            delayedRetry.retryOrReject(pendingValidation);
+            validationMetrics.messageHandled(receivedNanos);
+        }
+    }
+
+    private void sendResults(SingleValidationResultsEnvelope envelope, PendingValidation pendingValidation) {
+        if (latestVersions.isSuperseded(pendingValidation.getEnvelope())) {
+            pendingValidation.ack();
+            validationMetrics.supersededBeforePublishing();
+            return;
+        }
+
+        try {
+            validationResultsPublisher.publish(envelope);
+        } catch (AmqpException e) {
+            logger.error("Could not send the validation results of sample with id {}",
+                    pendingValidation.getEnvelope().getEntityToValidate().getId(), e);
+            delayedRetry.retryOrReject(pendingValidation);
+            return;
         }
+        pendingValidation.ack();
     }
 }
@@ -0,0 +1,74 @@
+package uk.ac.ebi.subs.validator.biosamples.batch;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.messaging.DelayedRetry;
+import uk.ac.ebi.subs.validator.biosamples.messaging.LatestVersions;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationRequestMessageConverter;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationResultsPublisher;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
+
+/**
+ * Configuration of the batch mode consumption of the BioSamples sample validation queue.
+ * Only active when {@code biosamples.validator.batch.enabled} is set to true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.batch.enabled", havingValue = "true")
+public class BatchValidationConfiguration {
+
+    @Value("${biosamples.validator.batch.size:250}")
+    private int batchSize;
+
+    @Value("${biosamples.validator.batch.window-ms:200}")
+    private long batchWindowMillis;
+
+    @Value("${biosamples.validator.batch.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMillis;
+
+    @Value("${biosamples.validator.batch.concurrency:1}")
+    private int concurrency;
+
+    @Value("${biosamples.validator.batch.publishing-threads:2}")
+    private int publishingThreads;
+
+    @Value("${biosamples.validator.logging.per-message-lines-per-second:10}")
+    private int perMessageLinesPerSecond;
+
+    @Bean
+    BatchValidatorListener batchValidatorListener(BiosamplesValidator validator,
+                                                  ValidationResultsPublisher validationResultsPublisher,
+                                                  ValidationRequestMessageConverter validationRequestMessageConverter,
+                                                  ValidationMetrics validationMetrics,
+                                                  DelayedRetry delayedRetry,
+                                                  LatestVersions latestVersions) {
+        validationMetrics.setConsumerCount(concurrency);
+        return new BatchValidatorListener(validator, validationResultsPublisher, validationRequestMessageConverter,
+                validationMetrics, delayedRetry, latestVersions, batchSize, batchWindowMillis, confirmTimeoutMillis,
+                publishingThreads, perMessageLinesPerSecond);
+    }
+
+    /**
+     * The listener container acks manually, and lets each consumer prefetch a whole batch,
+     * otherwise a batch could never fill up before its window elapses.
+     */
+    @Bean
+    SimpleMessageListenerContainer batchValidationListenerContainer(ConnectionFactory connectionFactory,
+                                                                    BatchValidatorListener batchValidatorListener) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(BIOSAMPLES_SAMPLE_VALIDATION);
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setPrefetchCount(batchSize);
+        container.setConcurrentConsumers(concurrency);
+        container.setDefaultRequeueRejected(false);
+        container.setMessageListener(batchValidatorListener);
+        return container;
+    }
+}
@@ -0,0 +1,278 @@
+package uk.ac.ebi.subs.validator.biosamples.batch;
+
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.ChannelAwareMessageListener;
+import org.springframework.beans.factory.DisposableBean;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.logging.SampledLogger;
+import uk.ac.ebi.subs.validator.biosamples.messaging.DelayedRetry;
+import uk.ac.ebi.subs.validator.biosamples.messaging.LatestVersions;
+import uk.ac.ebi.subs.validator.biosamples.messaging.PendingValidation;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationRequestMessageConverter;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationResultsPublisher;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch mode counterpart of {@link uk.ac.ebi.subs.validator.biosamples.ValidatorListener}.
+ *
+ * It collects validation requests until either the batch is full or the batch window has elapsed
+ * since the first request of the batch arrived. Then it validates the whole batch and publishes all of its
+ * results with a single publisher confirm round trip.
+ *
+ * The results of a batch are published, and its messages acked, on a pool of {@code publishing-threads} of their own
+ * once its last validation completes, so neither the consumer, the flush thread nor the threads resolving relationship
+ * targets wait for BioSamples or for the publisher confirms.
+ *
+ * Messages are acked and nacked one by one: a message that can not be converted is rejected without requeueing,
+ * so only that message ends up on the dead letter exchange, and a message that can not be validated is handed to
+ * {@link DelayedRetry}. If the results of a batch can not be published, all of its messages are retried.
+ *
+ * The versions of the whole batch are recorded as it is collected, so when a sample is edited several times in
+ * quick succession only its newest version is validated, and the older ones are acked straight away,
+ * see {@link LatestVersions}.
+ */
+public class BatchValidatorListener implements ChannelAwareMessageListener, DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(BatchValidatorListener.class);
+
+    private final BiosamplesValidator validator;
+    private final ValidationResultsPublisher validationResultsPublisher;
+    private final ValidationRequestMessageConverter messageConverter;
+    private final ValidationMetrics validationMetrics;
+    private final DelayedRetry delayedRetry;
+    private final LatestVersions latestVersions;
+    private final SampledLogger sampledLogger;
+
+    private final int batchSize;
+    private final long batchWindowMillis;
+    private final long confirmTimeoutMillis;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "validation-batch-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService publishingExecutor;
+
+    private final Object lock = new Object();
+    private List<PendingValidation> pendingValidations;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public BatchValidatorListener(BiosamplesValidator validator, ValidationResultsPublisher validationResultsPublisher,
+                                  ValidationRequestMessageConverter messageConverter, ValidationMetrics validationMetrics,
+                                  DelayedRetry delayedRetry, LatestVersions latestVersions, int batchSize, long batchWindowMillis, long confirmTimeoutMillis,
+                                  int publishingThreads, int perMessageLinesPerSecond) {
+        this.validator = validator;
+        this.validationResultsPublisher = validationResultsPublisher;
+        this.messageConverter = messageConverter;
+        this.validationMetrics = validationMetrics;
+        this.delayedRetry = delayedRetry;
+        this.latestVersions = latestVersions;
+        this.batchSize = batchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.sampledLogger = new SampledLogger(logger, perMessageLinesPerSecond);
+        this.pendingValidations = new ArrayList<>(batchSize);
+        this.publishingExecutor = Executors.newFixedThreadPool(publishingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "validation-batch-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, Channel channel) {
+        long receivedNanos = validationMetrics.messageReceived();
+        try {
+            receive(message, channel, receivedNanos);
+        } finally {
+            validationMetrics.consumerBusySince(receivedNanos);
+        }
+    }
+
+    private void receive(Message message, Channel channel, long receivedNanos) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+
+        SampleValidationMessageEnvelope envelope;
+        try {
+            envelope = messageConverter.fromMessage(message);
+        } catch (RuntimeException e) {
+            logger.error("Could not convert message with delivery tag {}, rejecting it", deliveryTag, e);
+            PendingValidation.reject(channel, deliveryTag);
+            validationMetrics.messageHandled(receivedNanos);
+            return;
+        }
+        latestVersions.received(envelope);
+
+        List<PendingValidation> fullBatch = null;
+        synchronized (lock) {
+            pendingValidations.add(new PendingValidation(envelope, message, channel, receivedNanos));
+            if (pendingValidations.size() >= batchSize) {
+                fullBatch = drainPendingValidations();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = flushScheduler.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            process(fullBatch);
+        }
+    }
+
+    /**
+     * Processes whatever is pending, regardless of the size of the batch.
+     */
+    public void flush() {
+        List<PendingValidation> batch;
+        synchronized (lock) {
+            batch = drainPendingValidations();
+        }
+        if (!batch.isEmpty()) {
+            process(batch);
+        }
+    }
+
+    private List<PendingValidation> drainPendingValidations() {
+        List<PendingValidation> batch = pendingValidations;
+        pendingValidations = new ArrayList<>(batchSize);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void process(List<PendingValidation> pending) {
+        List<PendingValidation> batch = new ArrayList<>(pending.size());
+        for (PendingValidation pendingValidation : pending) {
+            if (latestVersions.isSuperseded(pendingValidation.getEnvelope())) {
+                pendingValidation.ack();
+                validationMetrics.supersededBeforeValidation();
+                validationMetrics.messageHandled(pendingValidation.getReceivedNanos());
+            } else {
+                batch.add(pendingValidation);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        sampledLogger.info("Validating a batch of {} samples", batch.size());
+
+        List<CompletableFuture<SingleValidationResultsEnvelope>> validations = new ArrayList<>(batch.size());
+        for (PendingValidation pendingValidation : batch) {
+            CompletableFuture<SingleValidationResultsEnvelope> validation;
+            try {
+                validation = validator.validateSampleAsync(pendingValidation.getEnvelope());
+            } catch (RuntimeException e) {
+                validation = CompletableFuture.failedFuture(e);
+            }
+            validations.add(validation);
+        }
+
+        CompletableFuture.allOf(validations.toArray(new CompletableFuture[0]))
+                .whenCompleteAsync((ignored, throwable) -> publishAndAcknowledge(batch, validations), publishingExecutor);
+    }
+
+    /**
+     * Publishes the results of a validated batch and acks its messages. Whatever goes wrong, every message of the batch
+     * is acked, retried or rejected in the end, so none stays unacked until its channel closes.
+     */
+    private void publishAndAcknowledge(List<PendingValidation> batch, List<CompletableFuture<SingleValidationResultsEnvelope>> validations) {
+        boolean[] settled = new boolean[batch.size()];
+        try {
+            publishAndAcknowledge(batch, validations, settled);
+        } catch (RuntimeException e) {
+            logger.error("Could not process a batch of {} samples, retrying its unacknowledged messages", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                if (!settled[i]) {
+                    retryOrRequeue(batch.get(i));
+                }
+            }
+        }
+    }
+
+    private void publishAndAcknowledge(List<PendingValidation> batch, List<CompletableFuture<SingleValidationResultsEnvelope>> validations,
+                                       boolean[] settled) {
+        List<Integer> validated = new ArrayList<>(batch.size());
+        List<SingleValidationResultsEnvelope> results = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingValidation pendingValidation = batch.get(i);
+            SingleValidationResultsEnvelope result;
+            try {
+                result = validations.get(i).join();
+            } catch (CompletionException e) {
+                logger.error("Could not validate sample with id {}",
+                        pendingValidation.getEnvelope().getEntityToValidate().getId(), e.getCause());
+                delayedRetry.retryOrReject(pendingValidation);
+                settled[i] = true;
+                validationMetrics.messageHandled(pendingValidation.getReceivedNanos());
+                continue;
+            }
+            if (latestVersions.isSuperseded(pendingValidation.getEnvelope())) {
+                pendingValidation.ack();
+                settled[i] = true;
+                validationMetrics.supersededBeforePublishing();
+                validationMetrics.messageHandled(pendingValidation.getReceivedNanos());
+                continue;
+            }
+            results.add(result);
+            validated.add(i);
+        }
+
+        try {
+            validationResultsPublisher.publishConfirmed(results, confirmTimeoutMillis);
+        } catch (AmqpException e) {
+            logger.error("Could not publish the results of a batch of {} samples", validated.size(), e);
+            for (int i : validated) {
+                delayedRetry.retryOrReject(batch.get(i));
+                settled[i] = true;
+                validationMetrics.messageHandled(batch.get(i).getReceivedNanos());
+            }
+            return;
+        }
+
+        for (int i : validated) {
+            batch.get(i).ack();
+            settled[i] = true;
+            validationMetrics.messageHandled(batch.get(i).getReceivedNanos());
+        }
+    }
+
+    /**
+     * Last resort for a message left over by a failed batch: retry it, or hand it back to the broker if even that fails.
+     */
+    private void retryOrRequeue(PendingValidation pendingValidation) {
+        try {
+            delayedRetry.retryOrReject(pendingValidation);
+        } catch (RuntimeException e) {
+            logger.error("Could not retry message with delivery tag {}, requeueing it",
+                    pendingValidation.getMessage().getMessageProperties().getDeliveryTag(), e);
+            pendingValidation.requeue();
+        }
+        validationMetrics.messageHandled(pendingValidation.getReceivedNanos());
+    }
+
+    @Override
+    public void destroy() {
+        flushScheduler.shutdownNow();
+        publishingExecutor.shutdown();
+    }
+}
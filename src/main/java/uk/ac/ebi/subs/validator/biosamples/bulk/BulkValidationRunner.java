@@ -0,0 +1,93 @@
+package uk.ac.ebi.subs.validator.biosamples.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Validates a file of samples and exits, instead of listening to the validation queue.
+ *
+ * Started by {@link uk.ac.ebi.subs.validator.biosamples.BiosamplesValidatorApplication} with the {@value #BULK_PROFILE}
+ * profile when {@code --biosamples.validator.bulk.input=<file>} is given on the command line.
+ */
+@Component
+@Profile(BulkValidationRunner.BULK_PROFILE)
+public class BulkValidationRunner implements CommandLineRunner, ExitCodeGenerator {
+    private static Logger logger = LoggerFactory.getLogger(BulkValidationRunner.class);
+
+    public static final String BULK_PROFILE = "bulk";
+
+    private static final String INPUT_ARGUMENT = "--biosamples.validator.bulk.input=";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final BiosamplesValidator validator;
+
+    @Value("${biosamples.validator.bulk.input}")
+    private String input;
+
+    @Value("${biosamples.validator.bulk.output:}")
+    private String output;
+
+    @Value("${biosamples.validator.bulk.ordered:true}")
+    private boolean ordered;
+
+    @Value("${biosamples.validator.bulk.threads:0}")
+    private int threads;
+
+    @Value("${biosamples.validator.bulk.max-in-flight:1024}")
+    private int maxInFlight;
+
+    private int exitCode;
+
+    @Autowired
+    public BulkValidationRunner(BiosamplesValidator validator) {
+        this.validator = validator;
+    }
+
+    public static boolean isBulkValidation(String[] args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith(INPUT_ARGUMENT));
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Path inputPath = Paths.get(input);
+        Path outputPath = output.isEmpty() ? Paths.get(input + ".results.ndjson") : Paths.get(output);
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        logger.info("Validating the samples of {} on {} threads, writing their results to {}", inputPath, threadCount, outputPath);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(inputPath), BUFFER_SIZE);
+             OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputPath), BUFFER_SIZE)) {
+            BulkValidationSummary summary = new BulkValidator(validator, executor, ordered, maxInFlight)
+                    .validate(inputStream, outputStream);
+            logger.info(summary.toString());
+            exitCode = summary.getFailed() > 0 ? 1 : 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
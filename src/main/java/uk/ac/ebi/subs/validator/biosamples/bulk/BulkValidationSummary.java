@@ -0,0 +1,73 @@
+package uk.ac.ebi.subs.validator.biosamples.bulk;
+
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of a {@link BulkValidator} run, and how long it took.
+ */
+public class BulkValidationSummary {
+
+    private final long startNanos = System.nanoTime();
+    private volatile long elapsedNanos = -1;
+
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder warnings = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    void validated(SingleValidationResultStatus status) {
+        if (status == SingleValidationResultStatus.Error) {
+            errors.increment();
+        } else if (status == SingleValidationResultStatus.Warning) {
+            warnings.increment();
+        } else {
+            passed.increment();
+        }
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public long getValidated() {
+        return passed.sum() + warnings.sum() + errors.sum();
+    }
+
+    public long getPassed() {
+        return passed.sum();
+    }
+
+    public long getWarnings() {
+        return warnings.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos < 0 ? System.nanoTime() - startNanos : elapsedNanos);
+    }
+
+    public double getSamplesPerSecond() {
+        long elapsedMillis = getElapsedMillis();
+        return elapsedMillis == 0 ? 0 : (getValidated() + getFailed()) * 1000d / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples validated in %d ms (%.1f samples/s): %d passed, %d with warnings, %d with errors, %d could not be validated",
+                getValidated(), getElapsedMillis(), getSamplesPerSecond(), getPassed(), getWarnings(), getErrors(), getFailed());
+    }
+}
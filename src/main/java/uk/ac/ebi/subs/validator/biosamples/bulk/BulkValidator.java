@@ -0,0 +1,197 @@
+package uk.ac.ebi.subs.validator.biosamples.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Validates a stream of samples outside of RabbitMQ and writes their results as newline delimited JSON.
+ *
+ * The input is either newline delimited JSON or a JSON array, of samples or of sample validation envelopes.
+ * It is read one element at a time and at most {@code maxInFlight} samples are being validated at once,
+ * so memory use does not depend on the size of the input.
+ *
+ * In ordered mode the results are written in the order of the input; otherwise as soon as they are ready.
+ * An element that is not a sample, or a sample that can not be validated, is logged and counted as failed,
+ * and has no result written. Input that is not JSON at all ends the run, once the samples already submitted are done.
+ */
+public class BulkValidator {
+    private static Logger logger = LoggerFactory.getLogger(BulkValidator.class);
+
+    private final BiosamplesValidator validator;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+    private final boolean ordered;
+    private final int maxInFlight;
+
+    public BulkValidator(BiosamplesValidator validator, ExecutorService executor, boolean ordered, int maxInFlight) {
+        this.validator = validator;
+        this.executor = executor;
+        this.ordered = ordered;
+        this.maxInFlight = maxInFlight;
+        this.objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public BulkValidationSummary validate(InputStream input, OutputStream output) throws IOException {
+        BulkValidationSummary summary = new BulkValidationSummary();
+
+        try (MappingIterator<JsonNode> elements = objectMapper.readerFor(JsonNode.class).readValues(input);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            if (ordered) {
+                validateOrdered(elements, writer, summary);
+            } else {
+                validateUnordered(elements, writer, summary);
+            }
+        }
+
+        summary.finish();
+        return summary;
+    }
+
+    private void validateOrdered(MappingIterator<JsonNode> elements, SequenceWriter writer,
+                                 BulkValidationSummary summary) throws IOException {
+        Deque<CompletableFuture<SingleValidationResultsEnvelope>> inFlight = new ArrayDeque<>(maxInFlight);
+        while (elements.hasNextValue()) {
+            SampleValidationMessageEnvelope envelope = nextEnvelope(elements, summary);
+            if (envelope == null) {
+                continue;
+            }
+            if (inFlight.size() >= maxInFlight) {
+                writeNext(inFlight, writer, summary);
+            }
+            inFlight.add(submit(envelope));
+        }
+        while (!inFlight.isEmpty()) {
+            writeNext(inFlight, writer, summary);
+        }
+    }
+
+    private void writeNext(Deque<CompletableFuture<SingleValidationResultsEnvelope>> inFlight, SequenceWriter writer,
+                           BulkValidationSummary summary) throws IOException {
+        SingleValidationResultsEnvelope envelope;
+        try {
+            envelope = inFlight.poll().join();
+        } catch (CompletionException e) {
+            logger.warn("Could not validate a sample, skipping it", e.getCause());
+            summary.failed();
+            return;
+        }
+        writeResult(envelope, writer, summary);
+    }
+
+    private void validateUnordered(MappingIterator<JsonNode> elements, SequenceWriter writer,
+                                   BulkValidationSummary summary) throws IOException {
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+        try {
+            while (elements.hasNextValue() && writeFailure.get() == null) {
+                SampleValidationMessageEnvelope envelope = nextEnvelope(elements, summary);
+                if (envelope == null) {
+                    continue;
+                }
+                permits.acquireUninterruptibly();
+                CompletableFuture<SingleValidationResultsEnvelope> validation;
+                try {
+                    validation = submit(envelope);
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                validation.whenComplete((singleValidationResultsEnvelope, throwable) -> {
+                    try {
+                        if (throwable != null) {
+                            logger.warn("Could not validate a sample, skipping it", throwable);
+                            summary.failed();
+                        } else {
+                            writeResult(singleValidationResultsEnvelope, writer, summary);
+                        }
+                    } catch (IOException e) {
+                        writeFailure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            // the validations still running write to the writer, which is closed as soon as this returns
+            permits.acquireUninterruptibly(maxInFlight);
+        }
+
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+    }
+
+    private CompletableFuture<SingleValidationResultsEnvelope> submit(SampleValidationMessageEnvelope envelope) {
+        return CompletableFuture.supplyAsync(() -> validator.validateSampleAsync(envelope), executor)
+                .thenCompose(validation -> validation);
+    }
+
+    private void writeResult(SingleValidationResultsEnvelope envelope, SequenceWriter writer,
+                             BulkValidationSummary summary) throws IOException {
+        synchronized (writer) {
+            writer.write(envelope);
+        }
+        summary.validated(ValidationMetrics.overallStatus(envelope));
+    }
+
+    /**
+     * @return the next element as a validation envelope, or null if it is not a sample, which is then counted as failed
+     * @throws IOException if the input is not JSON
+     */
+    private SampleValidationMessageEnvelope nextEnvelope(MappingIterator<JsonNode> elements,
+                                                         BulkValidationSummary summary) throws IOException {
+        JsonNode element = elements.nextValue();
+        try {
+            return toEnvelope(element);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.warn("Could not read a sample from {}, skipping it", abbreviate(element), e);
+            summary.failed();
+            return null;
+        }
+    }
+
+    private static String abbreviate(JsonNode element) {
+        String json = element.toString();
+        return json.length() > 200 ? json.substring(0, 200) + "..." : json;
+    }
+
+    /**
+     * Elements carrying an {@code entityToValidate} are validation envelopes, anything else is taken for a bare sample.
+     */
+    private SampleValidationMessageEnvelope toEnvelope(JsonNode element) throws JsonProcessingException {
+        if (element.has("entityToValidate")) {
+            return objectMapper.treeToValue(element, SampleValidationMessageEnvelope.class);
+        }
+
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(1);
+        envelope.setEntityToValidate(objectMapper.treeToValue(element, Sample.class));
+        return envelope;
+    }
+}
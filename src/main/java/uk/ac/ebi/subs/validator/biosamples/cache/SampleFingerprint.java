@@ -0,0 +1,126 @@
+package uk.ac.ebi.subs.validator.biosamples.cache;
+
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+import uk.ac.ebi.subs.data.component.Term;
+import uk.ac.ebi.subs.data.submittable.Sample;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes a stable SHA-256 hash of the fields of a {@link Sample} the validator reads:
+ * id, alias, release date, relationships and attributes.
+ *
+ * Attributes are hashed in attribute name order, so the fingerprint does not depend on the order the attributes
+ * were deserialized in. Every field is length prefixed, so adjacent fields can not run into each other.
+ */
+public final class SampleFingerprint {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private SampleFingerprint() {
+    }
+
+    public static String of(Sample sample) {
+        MessageDigest digest = newDigest();
+
+        update(digest, sample.getId());
+        update(digest, sample.getAlias());
+        update(digest, sample.getReleaseDate() == null ? null : sample.getReleaseDate().toString());
+
+        List<SampleRelationship> sampleRelationships = sample.getSampleRelationships();
+        if (sampleRelationships == null) {
+            update(digest, -1);
+        } else {
+            update(digest, sampleRelationships.size());
+            for (SampleRelationship sampleRelationship : sampleRelationships) {
+                if (sampleRelationship == null) {
+                    update(digest, -1);
+                } else {
+                    update(digest, sampleRelationship.getRelationshipNature());
+                    update(digest, sampleRelationship.getAccession());
+                    update(digest, sampleRelationship.getAlias());
+                }
+            }
+        }
+
+        Map<String, Collection<Attribute>> attributes = sample.getAttributes();
+        if (attributes == null) {
+            update(digest, -1);
+        } else {
+            List<String> attributeNames = new ArrayList<>(attributes.keySet());
+            Collections.sort(attributeNames);
+            update(digest, attributeNames.size());
+            for (String attributeName : attributeNames) {
+                update(digest, attributeName);
+                updateAttributes(digest, attributes.get(attributeName));
+            }
+        }
+
+        return toHex(digest.digest());
+    }
+
+    private static void updateAttributes(MessageDigest digest, Collection<Attribute> attributes) {
+        if (attributes == null) {
+            update(digest, -1);
+            return;
+        }
+        update(digest, attributes.size());
+        for (Attribute attribute : attributes) {
+            if (attribute == null) {
+                update(digest, -1);
+                continue;
+            }
+            update(digest, attribute.getValue());
+            update(digest, attribute.getUnits());
+            List<Term> terms = attribute.getTerms();
+            update(digest, terms == null ? -1 : terms.size());
+            if (terms != null) {
+                for (Term term : terms) {
+                    update(digest, term == null ? null : term.getUrl());
+                }
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            update(digest, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        update(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(MessageDigest digest, int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,281 @@
+package uk.ac.ebi.subs.validator.biosamples.cache;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.rules.CodedValidationResult;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded cache of validation results, keyed by the {@link SampleFingerprint} of the validated sample,
+ * so an unchanged sample that gets re-submitted is not validated again.
+ *
+ * Entries are evicted by size and by time since they were cached. Hit and miss counts are published on the
+ * actuator metrics endpoint.
+ *
+ * When {@code biosamples.validator.cache.disk.path} is set, the cache is written to that file on shutdown and read
+ * back on startup, skipping entries that have expired in between. A snapshot written by rules with different
+ * {@link SampleValidationRule#cacheKey() cache keys}, i.e. a different set of rules, a different configuration of them
+ * or different data behind them, is discarded, and so is a snapshot of an older format.
+ * The message templates and arguments of {@link CodedValidationResult}s are kept in the snapshot, so the results read
+ * back can still be sent in a compact encoding.
+ */
+@Component
+@ConditionalOnProperty(name = "biosamples.validator.cache.enabled", havingValue = "true")
+public class ValidationResultCache implements PublicMetrics {
+    private static Logger logger = LoggerFactory.getLogger(ValidationResultCache.class);
+
+    private static final TypeReference<List<SingleValidationResult>> RESULT_LIST_TYPE = new TypeReference<List<SingleValidationResult>>() {};
+    private static final TypeReference<List<MessageCode>> CODE_LIST_TYPE = new TypeReference<List<MessageCode>>() {};
+
+    static final int SNAPSHOT_FORMAT = 2;
+
+    private final Cache<String, CachedValidation> cache;
+    private final long expireAfterWriteMillis;
+    private final Path diskPath;
+    private final List<SampleValidationRule> rules;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Autowired
+    public ValidationResultCache(@Value("${biosamples.validator.cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${biosamples.validator.cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes,
+                                 @Value("${biosamples.validator.cache.disk.path:}") String diskPath,
+                                 List<SampleValidationRule> rules) {
+        this.expireAfterWriteMillis = TimeUnit.MINUTES.toMillis(expireAfterWriteMinutes);
+        this.diskPath = diskPath.isEmpty() ? null : Paths.get(diskPath);
+        this.rules = rules;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached results of the given sample, or validates it with the given function and caches the results.
+     */
+    public List<SingleValidationResult> get(Sample sample, Function<Sample, List<SingleValidationResult>> validation) {
+        String fingerprint = SampleFingerprint.of(sample);
+        return cache.get(fingerprint, key -> new CachedValidation(validation.apply(sample), System.currentTimeMillis())).results;
+    }
+
+    private String rulesSignature() {
+        return rules.stream().map(SampleValidationRule::cacheKey).collect(Collectors.joining(","));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        CacheStats stats = cache.stats();
+        List<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("biosamples.validator.cache.size", cache.estimatedSize()));
+        metrics.add(new Metric<>("biosamples.validator.cache.hits", stats.hitCount()));
+        metrics.add(new Metric<>("biosamples.validator.cache.misses", stats.missCount()));
+        metrics.add(new Metric<>("biosamples.validator.cache.hit-ratio", stats.hitRate()));
+        metrics.add(new Metric<>("biosamples.validator.cache.evictions", stats.evictionCount()));
+        return metrics;
+    }
+
+    @PostConstruct
+    public void loadFromDisk() {
+        if (diskPath == null || !Files.exists(diskPath)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String rulesSignature = rulesSignature();
+        boolean currentFormat = false;
+        int loaded = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(diskPath.toFile())) {
+            parser.nextToken(); // START_OBJECT
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if ("format".equals(fieldName)) {
+                    currentFormat = parser.getIntValue() == SNAPSHOT_FORMAT;
+                } else if (!currentFormat) {
+                    // The format is written first, so a snapshot without it is of an older format
+                    logger.info("Discarding validation result cache snapshot {} of another format", diskPath);
+                    return;
+                } else if ("rules".equals(fieldName)) {
+                    if (!rulesSignature.equals(parser.getText())) {
+                        logger.info("Discarding validation result cache snapshot {} written by different rules", diskPath);
+                        return;
+                    }
+                } else if ("entries".equals(fieldName)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        String key = null;
+                        long cachedAt = 0;
+                        List<SingleValidationResult> results = null;
+                        List<MessageCode> codes = null;
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String entryField = parser.getCurrentName();
+                            parser.nextToken();
+                            switch (entryField) {
+                                case "key":
+                                    key = parser.getText();
+                                    break;
+                                case "cachedAt":
+                                    cachedAt = parser.getLongValue();
+                                    break;
+                                case "results":
+                                    results = objectMapper.readValue(parser, RESULT_LIST_TYPE);
+                                    break;
+                                case "codes":
+                                    codes = objectMapper.readValue(parser, CODE_LIST_TYPE);
+                                    break;
+                                default:
+                                    parser.skipChildren();
+                            }
+                        }
+                        if (key != null && results != null && now - cachedAt < expireAfterWriteMillis) {
+                            cache.put(key, new CachedValidation(withCodes(results, codes), cachedAt));
+                            loaded++;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read validation result cache snapshot {}, starting with an empty cache", diskPath, e);
+            return;
+        }
+
+        logger.info("Loaded {} validation results from cache snapshot {}", loaded, diskPath);
+    }
+
+    @PreDestroy
+    public void saveToDisk() {
+        if (diskPath == null) {
+            return;
+        }
+
+        Path tempPath = diskPath.resolveSibling(diskPath.getFileName() + ".tmp");
+        int saved = 0;
+        try {
+            if (diskPath.getParent() != null) {
+                Files.createDirectories(diskPath.getParent());
+            }
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(tempPath.toFile(), JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeNumberField("format", SNAPSHOT_FORMAT);
+                generator.writeStringField("rules", rulesSignature());
+                generator.writeArrayFieldStart("entries");
+                for (Map.Entry<String, CachedValidation> entry : cache.asMap().entrySet()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("key", entry.getKey());
+                    generator.writeNumberField("cachedAt", entry.getValue().cachedAt);
+                    generator.writeFieldName("results");
+                    objectMapper.writeValue(generator, entry.getValue().results);
+                    generator.writeFieldName("codes");
+                    objectMapper.writeValue(generator, codesOf(entry.getValue().results));
+                    generator.writeEndObject();
+                    saved++;
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            Files.move(tempPath, diskPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write validation result cache snapshot {}", diskPath, e);
+            return;
+        }
+
+        logger.info("Saved {} validation results to cache snapshot {}", saved, diskPath);
+    }
+
+    private static List<MessageCode> codesOf(List<SingleValidationResult> results) {
+        List<MessageCode> codes = new ArrayList<>(results.size());
+        for (SingleValidationResult result : results) {
+            codes.add(result instanceof CodedValidationResult ? new MessageCode((CodedValidationResult) result) : null);
+        }
+        return codes;
+    }
+
+    private static List<SingleValidationResult> withCodes(List<SingleValidationResult> results, List<MessageCode> codes) {
+        if (codes == null || codes.size() != results.size()) {
+            return results;
+        }
+        List<SingleValidationResult> codedResults = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            SingleValidationResult result = results.get(i);
+            MessageCode code = codes.get(i);
+            if (code == null || code.template == null) {
+                codedResults.add(result);
+            } else {
+                CodedValidationResult codedResult = new CodedValidationResult(result.getValidationAuthor(), result.getEntityUuid(),
+                        code.template, code.arguments == null ? null : code.arguments.toArray());
+                BeanUtils.copyProperties(result, codedResult);
+                codedResults.add(codedResult);
+            }
+        }
+        return codedResults;
+    }
+
+    /**
+     * The message template and arguments of a {@link CodedValidationResult}, which its JSON representation leaves out.
+     * The arguments are kept as text, the way the compact encodings send them.
+     */
+    static class MessageCode {
+        public String template;
+        public List<String> arguments;
+
+        MessageCode() {
+        }
+
+        MessageCode(CodedValidationResult result) {
+            this.template = result.getMessageTemplate();
+            this.arguments = new ArrayList<>(result.getMessageArguments().length);
+            for (Object argument : result.getMessageArguments()) {
+                arguments.add(String.valueOf(argument));
+            }
+        }
+    }
+
+    private static class CachedValidation {
+        private final List<SingleValidationResult> results;
+        private final long cachedAt;
+
+        private CachedValidation(List<SingleValidationResult> results, long cachedAt) {
+            this.results = results;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The compiled checks of one attribute of a checklist: whether it is required, the pattern its values must match,
+ * the units they must have, and whether they must be ISO 8601 dates.
+ */
+final class AttributeCheck {
+
+    /**
+     * A year, a year and month, a date, or a date and time with an optional offset.
+     * Values of this shape are parsed to also reject dates like 2019-02-30.
+     */
+    private static final Pattern ISO_8601_SHAPE = Pattern.compile(
+            "\\d{4}(-(0[1-9]|1[0-2])(-\\d{2}(T\\d{2}:\\d{2}(:\\d{2}(\\.\\d{1,9})?)?(Z|[+-]\\d{2}:\\d{2})?)?)?)?");
+
+    private final String name;
+    private final boolean required;
+    private final Pattern pattern;
+    private final Set<String> units;
+    private final boolean date;
+    private final SingleValidationResultStatus level;
+
+    AttributeCheck(String name, boolean required, Pattern pattern, Set<String> units, boolean date,
+                   SingleValidationResultStatus level) {
+        this.name = name;
+        this.required = required;
+        this.pattern = pattern;
+        this.units = units;
+        this.date = date;
+        this.level = level;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * @return true if the attribute has a non blank value, whether it passed the checks or not
+     */
+    boolean check(String attributeName, Attribute attribute, String checklistName, SampleValidationContext context) {
+        String value = attribute == null ? null : attribute.getValue();
+        if (value == null || value.trim().isEmpty()) {
+            return false;
+        }
+
+        if (date && !isIso8601Date(value)) {
+            report(context, ChecklistRule.ATTRIBUTE_DATE_INVALID, attributeName, value, checklistName);
+        } else if (pattern != null && !pattern.matcher(value).matches()) {
+            report(context, ChecklistRule.ATTRIBUTE_VALUE_MISMATCH, attributeName, value, pattern.pattern(), checklistName);
+        }
+
+        if (units != null) {
+            String attributeUnits = attribute.getUnits();
+            if (attributeUnits == null || attributeUnits.isEmpty()) {
+                report(context, ChecklistRule.ATTRIBUTE_UNITS_MISSING, attributeName, units, checklistName);
+            } else if (!units.contains(attributeUnits)) {
+                report(context, ChecklistRule.ATTRIBUTE_UNITS_INVALID, attributeName, attributeUnits, units, checklistName);
+            }
+        }
+        return true;
+    }
+
+    void reportMissing(String checklistName, SampleValidationContext context) {
+        report(context, ChecklistRule.REQUIRED_ATTRIBUTE_MISSING, name, checklistName);
+    }
+
+    private void report(SampleValidationContext context, String messageTemplate, Object... messageArguments) {
+        if (level == SingleValidationResultStatus.Warning) {
+            context.addWarning(messageTemplate, messageArguments);
+        } else {
+            context.addError(messageTemplate, messageArguments);
+        }
+    }
+
+    static boolean isIso8601Date(String value) {
+        if (!ISO_8601_SHAPE.matcher(value).matches()) {
+            return false;
+        }
+        if (value.length() <= 7) {
+            return true;
+        }
+        try {
+            if (value.length() == 10) {
+                DateTimeFormatter.ISO_LOCAL_DATE.parse(value);
+            } else {
+                DateTimeFormatter.ISO_DATE_TIME.parse(value);
+            }
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    static Set<String> unitsOf(List<String> units) {
+        return units == null || units.isEmpty() ? null : Collections.unmodifiableSet(new LinkedHashSet<>(units));
+    }
+}
@@ -0,0 +1,89 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+/**
+ * An open addressing hash table from attribute names to the position of their check in a {@link CompiledChecklist}.
+ *
+ * Names are matched ignoring case and surrounding whitespace, without allocating: the hash and the comparison
+ * both walk the characters of the looked up name in place.
+ */
+final class AttributeNameIndex {
+
+    private final String[] keys;
+    private final int[] values;
+    private final int mask;
+
+    /**
+     * @param names the attribute names, each at the position of its check
+     */
+    AttributeNameIndex(String[] names) {
+        int size = Integer.highestOneBit(Math.max(2, names.length * 2) - 1) << 1;
+        this.keys = new String[size];
+        this.values = new int[size];
+        this.mask = size - 1;
+
+        for (int i = 0; i < names.length; i++) {
+            String key = normalize(names[i]);
+            int slot = hash(key, 0, key.length()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot].equals(key)) {
+                    throw new IllegalArgumentException("Attribute " + names[i] + " is checked more than once");
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = i;
+        }
+    }
+
+    /**
+     * @return the position of the check of the attribute, or -1 if it is not checked
+     */
+    int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int start = 0;
+        int end = name.length();
+        while (start < end && Character.isWhitespace(name.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(name.charAt(end - 1))) {
+            end--;
+        }
+
+        int length = end - start;
+        int slot = hash(name, start, end) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.length() == length && key.regionMatches(true, 0, name, start, length)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int hash(String name, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            normalized.append(Character.toLowerCase(name.charAt(i)));
+        }
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && Character.isWhitespace(normalized.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(normalized.charAt(end - 1))) {
+            end--;
+        }
+        return normalized.substring(start, end);
+    }
+}
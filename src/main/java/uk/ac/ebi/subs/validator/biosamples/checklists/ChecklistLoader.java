@@ -0,0 +1,124 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and compiles the checklist definitions of a location: every {@code *.json} file is a checklist,
+ * and the optional {@value #SUBMISSIONS_FILE} assigns checklists to submissions, as
+ * {@code <submission id>=<checklist name>} lines.
+ *
+ * <pre>
+ * {
+ *   "name": "biosamples-minimal",
+ *   "attributes": [
+ *     {"name": "organism", "required": true},
+ *     {"name": "collection date", "required": true, "date": true},
+ *     {"name": "geographic location (latitude)", "pattern": "-?\\d{1,2}(\\.\\d+)?", "units": ["DD"], "level": "warning"}
+ *   ]
+ * }
+ * </pre>
+ *
+ * Identical patterns of different checklists are compiled once and shared.
+ */
+public class ChecklistLoader {
+
+    public static final String SUBMISSIONS_FILE = "submissions.properties";
+
+    private final ResourcePatternResolver resourcePatternResolver;
+    private final ObjectMapper objectMapper;
+    private final String location;
+
+    /**
+     * @param location a Spring resource location of a directory, e.g. {@code classpath:checklists/} or {@code file:/data/checklists/}
+     */
+    public ChecklistLoader(ResourcePatternResolver resourcePatternResolver, ObjectMapper objectMapper, String location) {
+        this.resourcePatternResolver = resourcePatternResolver;
+        this.objectMapper = objectMapper;
+        this.location = location.endsWith("/") ? location : location + '/';
+    }
+
+    public Checklists load() throws IOException {
+        Map<String, Pattern> patterns = new HashMap<>();
+        Map<String, CompiledChecklist> checklists = new HashMap<>();
+
+        for (Resource resource : resourcePatternResolver.getResources(location + "*.json")) {
+            JsonNode definition;
+            try (InputStream inputStream = resource.getInputStream()) {
+                definition = objectMapper.readTree(inputStream);
+            }
+            CompiledChecklist checklist = compile(definition, patterns, resource.getFilename());
+            if (checklists.put(checklist.getName(), checklist) != null) {
+                throw new IllegalArgumentException("Checklist " + checklist.getName() + " is defined more than once in " + location);
+            }
+        }
+
+        Map<String, String> submissionChecklists = new HashMap<>();
+        Resource submissions = resourcePatternResolver.getResource(location + SUBMISSIONS_FILE);
+        if (submissions.exists()) {
+            Properties properties = PropertiesLoaderUtils.loadProperties(submissions);
+            for (String submissionId : properties.stringPropertyNames()) {
+                submissionChecklists.put(submissionId, properties.getProperty(submissionId).trim());
+            }
+        }
+
+        return new Checklists(Collections.unmodifiableMap(checklists), Collections.unmodifiableMap(submissionChecklists));
+    }
+
+    /**
+     * @return a value that changes when the definitions change, to tell whether they need reloading
+     */
+    public long signature() throws IOException {
+        long signature = 17;
+        for (Resource resource : resourcePatternResolver.getResources(location + "*")) {
+            signature = 31 * signature + String.valueOf(resource.getFilename()).hashCode();
+            signature = 31 * signature + resource.lastModified();
+            signature = 31 * signature + resource.contentLength();
+        }
+        return signature;
+    }
+
+    static CompiledChecklist compile(JsonNode definition, Map<String, Pattern> patterns, String source) {
+        String name = definition.path("name").asText(null);
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Checklist in " + source + " has no name");
+        }
+
+        List<AttributeCheck> checks = new ArrayList<>();
+        for (JsonNode attribute : definition.path("attributes")) {
+            String attributeName = attribute.path("name").asText(null);
+            if (attributeName == null || attributeName.trim().isEmpty()) {
+                throw new IllegalArgumentException("Checklist " + name + " has an attribute without a name");
+            }
+
+            String regex = attribute.path("pattern").asText(null);
+            Pattern pattern = regex == null ? null : patterns.computeIfAbsent(regex, Pattern::compile);
+
+            List<String> units = new ArrayList<>();
+            attribute.path("units").forEach(unit -> units.add(unit.asText()));
+
+            SingleValidationResultStatus level = "warning".equalsIgnoreCase(attribute.path("level").asText())
+                    ? SingleValidationResultStatus.Warning
+                    : SingleValidationResultStatus.Error;
+
+            checks.add(new AttributeCheck(attributeName.trim(), attribute.path("required").asBoolean(false), pattern,
+                    AttributeCheck.unitsOf(units), attribute.path("date").asBoolean(false), level));
+        }
+
+        return new CompiledChecklist(name, checks.toArray(new AttributeCheck[0]));
+    }
+}
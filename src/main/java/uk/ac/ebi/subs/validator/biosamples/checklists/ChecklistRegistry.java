@@ -0,0 +1,111 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the compiled checklists of {@code biosamples.validator.checklists.location}.
+ *
+ * The definitions are loaded once at startup, and checked for changes every
+ * {@code biosamples.validator.checklists.reload-interval-seconds} (0 only loads them at startup). Changed definitions
+ * are compiled aside and swapped in at once; if they do not compile, the previous checklists stay in use.
+ */
+@Component
+@ConditionalOnProperty(name = "biosamples.validator.checklists.enabled", havingValue = "true")
+public class ChecklistRegistry implements DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(ChecklistRegistry.class);
+
+    private final ChecklistLoader loader;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checklist-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Checklists checklists;
+    private long signature;
+    private volatile long checklistsSignature;
+
+    @Autowired
+    public ChecklistRegistry(ResourcePatternResolver resourcePatternResolver,
+                             @Value("${biosamples.validator.checklists.location:classpath:checklists/}") String location,
+                             @Value("${biosamples.validator.checklists.reload-interval-seconds:60}") long reloadIntervalSeconds) {
+        this(new ChecklistLoader(resourcePatternResolver, new ObjectMapper(), location), reloadIntervalSeconds);
+    }
+
+    public ChecklistRegistry(ChecklistLoader loader, long reloadIntervalSeconds) {
+        this.loader = loader;
+        try {
+            this.signature = loader.signature();
+            this.checklists = loader.load();
+            this.checklistsSignature = signature;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load the checklists", e);
+        }
+        logger.info("Loaded {} checklists", checklists.size());
+
+        if (reloadIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public Checklists getChecklists() {
+        return checklists;
+    }
+
+    /**
+     * @return the signature of the definitions the checklists in use were compiled from
+     */
+    public long getChecklistsSignature() {
+        return checklistsSignature;
+    }
+
+    /**
+     * Loads the definitions again, whether they changed or not.
+     * Definitions that do not compile are not tried again until they change.
+     *
+     * @return true if they were loaded, false if they did not compile and the previous checklists are kept
+     */
+    public synchronized boolean reload() {
+        try {
+            signature = loader.signature();
+            Checklists reloaded = loader.load();
+            checklists = reloaded;
+            checklistsSignature = signature;
+            logger.info("Reloaded {} checklists", reloaded.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not reload the checklists, keeping the previous ones", e);
+            return false;
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (loader.signature() != signature) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not check the checklists for changes", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
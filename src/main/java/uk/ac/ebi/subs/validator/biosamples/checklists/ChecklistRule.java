@@ -0,0 +1,106 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the attributes of a sample against a checklist: required attributes, value patterns, units and
+ * ISO 8601 dates.
+ *
+ * The checklist of a sample is named by its {@code biosamples.validator.checklists.sample-attribute} attribute,
+ * otherwise it is the one assigned to its submission, otherwise {@code biosamples.validator.checklists.default}.
+ * A sample without any is not checked.
+ *
+ * The outcome depends on the submission and on the checklists in use, which can be reloaded,
+ * so its results are never cached.
+ */
+@Component
+@Order(500)
+@ConditionalOnProperty(name = "biosamples.validator.checklists.enabled", havingValue = "true")
+public class ChecklistRule implements SampleValidationRule {
+
+    public static final String CHECKLIST_UNKNOWN = "Checklist: [%s] is not a known checklist.";
+    public static final String REQUIRED_ATTRIBUTE_MISSING = "Attribute: [%s] is required by checklist [%s].";
+    public static final String ATTRIBUTE_VALUE_MISMATCH = "Attribute: [%s] value [%s] does not match the pattern [%s] of checklist [%s].";
+    public static final String ATTRIBUTE_DATE_INVALID = "Attribute: [%s] value [%s] is not an ISO 8601 date, as required by checklist [%s].";
+    public static final String ATTRIBUTE_UNITS_MISSING = "Attribute: [%s] must have units, one of %s of checklist [%s].";
+    public static final String ATTRIBUTE_UNITS_INVALID = "Attribute: [%s] units [%s] are not one of %s of checklist [%s].";
+
+    private final ChecklistRegistry checklistRegistry;
+    private final String sampleAttribute;
+    private final String defaultChecklist;
+
+    @Autowired
+    public ChecklistRule(ChecklistRegistry checklistRegistry,
+                         @Value("${biosamples.validator.checklists.sample-attribute:checklist}") String sampleAttribute,
+                         @Value("${biosamples.validator.checklists.default:}") String defaultChecklist) {
+        this.checklistRegistry = checklistRegistry;
+        this.sampleAttribute = sampleAttribute;
+        this.defaultChecklist = defaultChecklist.trim();
+    }
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        Checklists checklists = checklistRegistry.getChecklists();
+        Sample sample = context.getSample();
+        Map<String, Collection<Attribute>> attributes = sample.getAttributes();
+
+        String checklistName = checklistNameOf(attributes, context.getSubmissionId(), checklists);
+        if (checklistName == null) {
+            return;
+        }
+
+        CompiledChecklist checklist = checklists.get(checklistName);
+        if (checklist == null) {
+            context.addError(CHECKLIST_UNKNOWN, checklistName);
+            return;
+        }
+        checklist.validate(attributes, context);
+    }
+
+    private String checklistNameOf(Map<String, Collection<Attribute>> attributes, String submissionId, Checklists checklists) {
+        Collection<Attribute> sampleChecklist = attributes == null ? null : attributes.get(sampleAttribute);
+        if (sampleChecklist != null) {
+            for (Attribute attribute : sampleChecklist) {
+                if (attribute != null && attribute.getValue() != null && !attribute.getValue().trim().isEmpty()) {
+                    return attribute.getValue().trim();
+                }
+            }
+        }
+
+        String submissionChecklist = checklists.checklistOfSubmission(submissionId);
+        if (submissionChecklist != null) {
+            return submissionChecklist;
+        }
+        return defaultChecklist.isEmpty() ? null : defaultChecklist;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ATTRIBUTES);
+    }
+
+    @Override
+    public String cacheKey() {
+        return getClass().getName() + "[" + sampleAttribute + "," + defaultChecklist + ","
+                + Long.toHexString(checklistRegistry.getChecklistsSignature()) + "]";
+    }
+}
@@ -0,0 +1,36 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import java.util.Map;
+
+/**
+ * An immutable set of compiled checklists, with the checklist assigned to each submission.
+ * Reloading the definitions builds a new instance, so a validation always sees one consistent set.
+ */
+public final class Checklists {
+
+    private final Map<String, CompiledChecklist> checklists;
+    private final Map<String, String> submissionChecklists;
+
+    Checklists(Map<String, CompiledChecklist> checklists, Map<String, String> submissionChecklists) {
+        this.checklists = checklists;
+        this.submissionChecklists = submissionChecklists;
+    }
+
+    /**
+     * @return the checklist with the name, or null if there is none
+     */
+    public CompiledChecklist get(String name) {
+        return checklists.get(name);
+    }
+
+    /**
+     * @return the name of the checklist assigned to the submission, or null if there is none
+     */
+    public String checklistOfSubmission(String submissionId) {
+        return submissionId == null ? null : submissionChecklists.get(submissionId);
+    }
+
+    public int size() {
+        return checklists.size();
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.ebi.subs.validator.biosamples.checklists;
+
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A checklist compiled into an {@link AttributeNameIndex} over its {@link AttributeCheck}s.
+ *
+ * A sample is validated in a single pass over its attributes: each attribute is looked up in the index and checked
+ * against its checklist entry, if it has one, and the required attributes that were not seen are reported at the end.
+ * Attributes the checklist does not mention are allowed.
+ */
+public final class CompiledChecklist {
+
+    private final String name;
+    private final AttributeCheck[] checks;
+    private final int[] requiredChecks;
+    private final AttributeNameIndex index;
+
+    CompiledChecklist(String name, AttributeCheck[] checks) {
+        this.name = name;
+        this.checks = checks;
+
+        String[] names = new String[checks.length];
+        int requiredCount = 0;
+        for (int i = 0; i < checks.length; i++) {
+            names[i] = checks[i].getName();
+            if (checks[i].isRequired()) {
+                requiredCount++;
+            }
+        }
+        this.index = new AttributeNameIndex(names);
+
+        this.requiredChecks = new int[requiredCount];
+        for (int i = 0, r = 0; i < checks.length; i++) {
+            if (checks[i].isRequired()) {
+                requiredChecks[r++] = i;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return checks.length;
+    }
+
+    public void validate(Map<String, Collection<Attribute>> attributes, SampleValidationContext context) {
+        boolean[] present = new boolean[checks.length];
+
+        if (attributes != null) {
+            for (Map.Entry<String, Collection<Attribute>> entry : attributes.entrySet()) {
+                int checkIndex = index.indexOf(entry.getKey());
+                if (checkIndex < 0 || entry.getValue() == null) {
+                    continue;
+                }
+                AttributeCheck check = checks[checkIndex];
+                for (Attribute attribute : entry.getValue()) {
+                    present[checkIndex] |= check.check(entry.getKey(), attribute, name, context);
+                }
+            }
+        }
+
+        for (int checkIndex : requiredChecks) {
+            if (!present[checkIndex]) {
+                checks[checkIndex].reportMissing(name, context);
+            }
+        }
+    }
+}
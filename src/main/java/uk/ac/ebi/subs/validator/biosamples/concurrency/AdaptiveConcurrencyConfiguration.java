@@ -0,0 +1,78 @@
+package uk.ac.ebi.subs.validator.biosamples.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.scheduling.FairScheduler;
+
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesMessagingConfiguration.VALIDATION_LISTENER_ID;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
+
+/**
+ * Configuration of the adaptive sizing of the consumers of the BioSamples sample validation queue.
+ * Only active when {@code biosamples.validator.adaptive-concurrency.enabled} is set to true.
+ *
+ * It drives the container of the {@link uk.ac.ebi.subs.validator.biosamples.ValidatorListener}, or the batch mode
+ * container when batch mode is on.
+ * Do not set {@code spring.rabbitmq.listener.max-concurrency} together with it,
+ * the container would scale its consumers on its own too.
+ * In batch mode the prefetch never goes below the batch size, or a batch could never fill up before its window elapses.
+ * With fair scheduling, it never goes below the minimum of the {@link FairScheduler}, and only the prefetch is
+ * adapted: the validations run on the workers of the scheduler, which the consumers only feed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.adaptive-concurrency.enabled", havingValue = "true")
+public class AdaptiveConcurrencyConfiguration {
+
+    @Bean
+    AdaptiveConcurrencyPolicy adaptiveConcurrencyPolicy(ObjectProvider<FairScheduler> fairScheduler,
+            @Value("${biosamples.validator.adaptive-concurrency.min-consumers:1}") int minConsumers,
+            @Value("${biosamples.validator.adaptive-concurrency.max-consumers:16}") int maxConsumers,
+            @Value("${biosamples.validator.adaptive-concurrency.min-prefetch:1}") int minPrefetch,
+            @Value("${biosamples.validator.adaptive-concurrency.max-prefetch:250}") int maxPrefetch,
+            @Value("${biosamples.validator.adaptive-concurrency.target-drain-seconds:60}") long targetDrainSeconds,
+            @Value("${biosamples.validator.adaptive-concurrency.target-buffer-ms:1000}") long targetBufferMillis,
+            @Value("${biosamples.validator.adaptive-concurrency.cpu-high-watermark:0.85}") double cpuHighWatermark,
+            @Value("${biosamples.validator.adaptive-concurrency.scale-down-after-intervals:6}") int scaleDownAfterIntervals,
+            @Value("${biosamples.validator.batch.enabled:false}") boolean batchEnabled,
+            @Value("${biosamples.validator.batch.size:250}") int batchSize) {
+        AdaptiveConcurrencyPolicy policy = new AdaptiveConcurrencyPolicy(minConsumers, maxConsumers, minPrefetch, maxPrefetch,
+                targetDrainSeconds, targetBufferMillis, cpuHighWatermark, scaleDownAfterIntervals);
+        if (batchEnabled) {
+            policy = policy.withMinPrefetch(batchSize);
+        }
+        FairScheduler scheduler = fairScheduler.getIfAvailable();
+        return scheduler == null ? policy : policy.withMinPrefetch(scheduler.getMinPrefetch());
+    }
+
+    /**
+     * The listener containers only exist once the context is refreshed, so the controller looks its container up then.
+     */
+    @Bean
+    AdaptiveConcurrencyController adaptiveConcurrencyController(
+            RabbitListenerEndpointRegistry rabbitListenerEndpointRegistry,
+            ObjectProvider<SimpleMessageListenerContainer> batchValidationListenerContainer,
+            AmqpAdmin amqpAdmin, AdaptiveConcurrencyPolicy adaptiveConcurrencyPolicy,
+            ValidationMetrics validationMetrics, MeterRegistry meterRegistry, ObjectProvider<FairScheduler> fairScheduler,
+            @Value("${biosamples.validator.batch.enabled:false}") boolean batchEnabled,
+            @Value("${biosamples.validator.adaptive-concurrency.min-consumers:1}") int initialConsumers,
+            @Value("${biosamples.validator.listener.prefetch:50}") int initialPrefetch,
+            @Value("${biosamples.validator.adaptive-concurrency.interval-ms:5000}") long intervalMillis) {
+        return new AdaptiveConcurrencyController(() -> {
+            MessageListenerContainer container = rabbitListenerEndpointRegistry.getListenerContainer(VALIDATION_LISTENER_ID);
+            return container instanceof SimpleMessageListenerContainer
+                    ? (SimpleMessageListenerContainer) container
+                    : batchValidationListenerContainer.getIfAvailable();
+        }, amqpAdmin, BIOSAMPLES_SAMPLE_VALIDATION, adaptiveConcurrencyPolicy, validationMetrics, meterRegistry,
+                batchEnabled || fairScheduler.getIfAvailable() == null,
+                initialConsumers, Math.max(initialPrefetch, adaptiveConcurrencyPolicy.getMinPrefetch()), intervalMillis);
+    }
+}
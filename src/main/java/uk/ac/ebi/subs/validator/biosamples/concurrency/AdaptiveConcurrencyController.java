@@ -0,0 +1,202 @@
+package uk.ac.ebi.subs.validator.biosamples.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Periodically resizes the consumers and the prefetch of the validation listener container,
+ * as decided by an {@link AdaptiveConcurrencyPolicy}, from the depth of the queue, the time the consumer threads
+ * were busy per message and the CPU usage of the process.
+ *
+ * The busy time, see {@link ValidationMetrics#consumerBusySince}, is what a message costs a consumer; the end to end
+ * handling time also counts waiting for relationship targets and publisher confirms, which more consumers do not shorten.
+ *
+ * A changed prefetch applies to the consumers started after the change; the container does not restart
+ * the running ones for it.
+ *
+ * When the validations run on the workers of a {@link uk.ac.ebi.subs.validator.biosamples.scheduling.FairScheduler},
+ * the consumers only queue them, so more consumers would add no capacity: only the prefetch is adapted then, and the
+ * consumer count of the {@link ValidationMetrics} is left to the scheduler, which counts its workers.
+ *
+ * Every change is logged, and the current values are published as the {@code biosamples.validator.listener.*} meters.
+ */
+public class AdaptiveConcurrencyController implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+
+    private final Supplier<SimpleMessageListenerContainer> containerSupplier;
+    private final AmqpAdmin amqpAdmin;
+    private final String queueName;
+    private final AdaptiveConcurrencyPolicy policy;
+    private final ValidationMetrics validationMetrics;
+    private final boolean scaleConsumers;
+    private final long intervalMillis;
+
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "validation-concurrency");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger consumers;
+    private final AtomicInteger prefetch;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Counter scaleUps;
+    private final Counter scaleDowns;
+
+    private SimpleMessageListenerContainer container;
+    private long lastHandledCount;
+    private long lastBusyNanos;
+
+    public AdaptiveConcurrencyController(Supplier<SimpleMessageListenerContainer> containerSupplier, AmqpAdmin amqpAdmin,
+                                         String queueName, AdaptiveConcurrencyPolicy policy,
+                                         ValidationMetrics validationMetrics, MeterRegistry meterRegistry,
+                                         boolean scaleConsumers, int initialConsumers, int initialPrefetch, long intervalMillis) {
+        this.containerSupplier = containerSupplier;
+        this.amqpAdmin = amqpAdmin;
+        this.queueName = queueName;
+        this.policy = policy;
+        this.validationMetrics = validationMetrics;
+        this.scaleConsumers = scaleConsumers;
+        this.intervalMillis = intervalMillis;
+        this.consumers = new AtomicInteger(initialConsumers);
+        this.prefetch = new AtomicInteger(initialPrefetch);
+
+        Gauge.builder("biosamples.validator.listener.consumers", consumers, AtomicInteger::get)
+                .description("Consumers of the validation queue")
+                .register(meterRegistry);
+        Gauge.builder("biosamples.validator.listener.prefetch", prefetch, AtomicInteger::get)
+                .description("Prefetch count of new consumers of the validation queue")
+                .register(meterRegistry);
+        Gauge.builder("biosamples.validator.listener.queue-depth", queueDepth, AtomicLong::get)
+                .description("Messages ready in the validation queue when last checked")
+                .register(meterRegistry);
+        this.scaleUps = scalingCounter(meterRegistry, "up");
+        this.scaleDowns = scalingCounter(meterRegistry, "down");
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+        if (container != null) {
+            return;
+        }
+        container = containerSupplier.get();
+        if (container == null) {
+            logger.warn("No validation listener container found, consumers will not be adapted");
+            return;
+        }
+
+        container.setConcurrentConsumers(consumers.get());
+        container.setPrefetchCount(prefetch.get());
+        if (scaleConsumers) {
+            validationMetrics.setConsumerCount(consumers.get());
+        }
+        lastHandledCount = validationMetrics.getHandlingTimer().count();
+        lastBusyNanos = validationMetrics.getConsumerBusyNanos();
+
+        scheduler.scheduleWithFixedDelay(this::adapt, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Adapting the validation consumers every {} ms, starting with {} consumers and a prefetch of {}",
+                intervalMillis, consumers.get(), prefetch.get());
+    }
+
+    /**
+     * Resizes the container once, from what happened since the previous call. Run by the scheduler every interval.
+     */
+    public void adapt() {
+        try {
+            Properties queueProperties = amqpAdmin.getQueueProperties(queueName);
+            if (queueProperties == null) {
+                logger.warn("Could not read the depth of queue {}, leaving the consumers as they are", queueName);
+                return;
+            }
+            long depth = ((Number) queueProperties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT)).longValue();
+            queueDepth.set(depth);
+
+            long handledCount = validationMetrics.getHandlingTimer().count();
+            long busyNanos = validationMetrics.getConsumerBusyNanos();
+            double meanBusyMillis = handledCount > lastHandledCount
+                    ? (busyNanos - lastBusyNanos) / 1e6 / (handledCount - lastHandledCount)
+                    : Double.NaN;
+            lastHandledCount = handledCount;
+            lastBusyNanos = busyNanos;
+
+            double cpuLoad = cpuLoad();
+
+            int currentConsumers = consumers.get();
+            int currentPrefetch = prefetch.get();
+            AdaptiveConcurrencyPolicy.Decision decision =
+                    policy.decide(currentConsumers, currentPrefetch, depth, meanBusyMillis, cpuLoad);
+            int nextConsumers = scaleConsumers ? decision.getConsumers() : currentConsumers;
+
+            if (nextConsumers == currentConsumers && decision.getPrefetch() == currentPrefetch) {
+                return;
+            }
+
+            logger.info("Resizing the validation consumers from {} to {} and their prefetch from {} to {} ({}: queue depth {}, " +
+                            "mean busy time {} ms, CPU {})", currentConsumers, nextConsumers,
+                    currentPrefetch, decision.getPrefetch(), decision.getReason(), depth,
+                    String.format("%.1f", meanBusyMillis), String.format("%.2f", cpuLoad));
+
+            if (decision.getPrefetch() != currentPrefetch) {
+                container.setPrefetchCount(decision.getPrefetch());
+                prefetch.set(decision.getPrefetch());
+            }
+            if (nextConsumers != currentConsumers) {
+                container.setConcurrentConsumers(nextConsumers);
+                consumers.set(nextConsumers);
+                validationMetrics.setConsumerCount(nextConsumers);
+                (nextConsumers > currentConsumers ? scaleUps : scaleDowns).increment();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not adapt the validation consumers", e);
+        }
+    }
+
+    /**
+     * @return the CPU usage of this process between 0 and 1, or the system load average per processor
+     * when the JVM does not report it
+     */
+    private double cpuLoad() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            double processCpuLoad = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+            if (processCpuLoad >= 0) {
+                return processCpuLoad;
+            }
+        }
+        double loadAverage = operatingSystem.getSystemLoadAverage();
+        return loadAverage < 0 ? Double.NaN : loadAverage / operatingSystem.getAvailableProcessors();
+    }
+
+    private static Counter scalingCounter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("biosamples.validator.listener.scaling")
+                .description("Changes of the number of consumers of the validation queue")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
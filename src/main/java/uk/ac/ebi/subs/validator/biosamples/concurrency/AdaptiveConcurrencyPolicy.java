@@ -0,0 +1,146 @@
+package uk.ac.ebi.subs.validator.biosamples.concurrency;
+
+/**
+ * Decides how many consumers the validation queue needs, and how many messages each of them should prefetch.
+ *
+ * The number of consumers is sized so that the current backlog could be drained within {@code targetDrainSeconds},
+ * at the rate a consumer got through messages over the last interval. Scaling up happens at once, at most doubling the consumers
+ * per interval; scaling down happens one consumer at a time, once the backlog has needed fewer consumers for
+ * {@code scaleDownAfterIntervals} consecutive intervals. While the CPU is above {@code cpuHighWatermark} the consumers
+ * are never scaled up, and are scaled down one at a time.
+ *
+ * The prefetch is sized so that each consumer holds about {@code targetBufferMillis} worth of work: slow messages are
+ * spread over the consumers, fast ones do not wait on broker round trips.
+ *
+ * Not thread safe, it is meant to be called from a single scheduler thread.
+ */
+public class AdaptiveConcurrencyPolicy {
+
+    private final int minConsumers;
+    private final int maxConsumers;
+    private final int minPrefetch;
+    private final int maxPrefetch;
+    private final long targetDrainSeconds;
+    private final long targetBufferMillis;
+    private final double cpuHighWatermark;
+    private final int scaleDownAfterIntervals;
+
+    private int intervalsBelowTarget;
+
+    public AdaptiveConcurrencyPolicy(int minConsumers, int maxConsumers, int minPrefetch, int maxPrefetch,
+                                     long targetDrainSeconds, long targetBufferMillis, double cpuHighWatermark,
+                                     int scaleDownAfterIntervals) {
+        if (minConsumers < 1 || maxConsumers < minConsumers) {
+            throw new IllegalArgumentException("Consumer bounds must satisfy 1 <= min <= max, got " + minConsumers + ", " + maxConsumers);
+        }
+        if (minPrefetch < 1 || maxPrefetch < minPrefetch) {
+            throw new IllegalArgumentException("Prefetch bounds must satisfy 1 <= min <= max, got " + minPrefetch + ", " + maxPrefetch);
+        }
+        this.minConsumers = minConsumers;
+        this.maxConsumers = maxConsumers;
+        this.minPrefetch = minPrefetch;
+        this.maxPrefetch = maxPrefetch;
+        this.targetDrainSeconds = targetDrainSeconds;
+        this.targetBufferMillis = targetBufferMillis;
+        this.cpuHighWatermark = cpuHighWatermark;
+        this.scaleDownAfterIntervals = scaleDownAfterIntervals;
+    }
+
+    /**
+     * @return this policy, never going below the given prefetch; the maximum prefetch is raised to it if lower
+     */
+    public AdaptiveConcurrencyPolicy withMinPrefetch(int prefetch) {
+        if (prefetch <= minPrefetch) {
+            return this;
+        }
+        return new AdaptiveConcurrencyPolicy(minConsumers, maxConsumers, prefetch, Math.max(maxPrefetch, prefetch),
+                targetDrainSeconds, targetBufferMillis, cpuHighWatermark, scaleDownAfterIntervals);
+    }
+
+    public int getMinPrefetch() {
+        return minPrefetch;
+    }
+
+    /**
+     * @param consumers the current number of consumers
+     * @param prefetch the current prefetch count
+     * @param queueDepth the number of messages ready in the queue
+     * @param meanBusyMillis the mean time a consumer thread was busy per message over the last interval,
+     *                       {@link Double#NaN} when nothing was handled
+     * @param cpuLoad the CPU usage of the process between 0 and 1, {@link Double#NaN} when unknown
+     * @return the consumers and prefetch to use from now on
+     */
+    public Decision decide(int consumers, int prefetch, long queueDepth, double meanBusyMillis, double cpuLoad) {
+        boolean busyTimeKnown = !Double.isNaN(meanBusyMillis) && meanBusyMillis > 0;
+        boolean cpuHigh = !Double.isNaN(cpuLoad) && cpuLoad >= cpuHighWatermark;
+
+        int wanted;
+        String reason;
+        if (busyTimeKnown) {
+            double messagesPerConsumer = targetDrainSeconds * 1000d / meanBusyMillis;
+            wanted = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(queueDepth / messagesPerConsumer));
+            reason = "backlog";
+        } else if (queueDepth == 0) {
+            wanted = minConsumers;
+            reason = "idle";
+        } else {
+            // messages are waiting, but none was handled during the interval: nothing to size the consumers on yet
+            wanted = consumers;
+            reason = "no busy time";
+        }
+        wanted = clamp(wanted, minConsumers, maxConsumers);
+
+        if (cpuHigh && wanted >= consumers) {
+            wanted = Math.max(minConsumers, consumers - 1);
+            reason = "cpu";
+        }
+
+        int nextConsumers = consumers;
+        if (wanted > consumers) {
+            nextConsumers = Math.min(wanted, consumers * 2);
+            intervalsBelowTarget = 0;
+        } else if (wanted < consumers) {
+            if (cpuHigh || ++intervalsBelowTarget >= scaleDownAfterIntervals) {
+                nextConsumers = consumers - 1;
+                intervalsBelowTarget = 0;
+            }
+        } else {
+            intervalsBelowTarget = 0;
+        }
+        nextConsumers = clamp(nextConsumers, minConsumers, maxConsumers);
+
+        int nextPrefetch = busyTimeKnown
+                ? clamp((int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(targetBufferMillis / meanBusyMillis)), minPrefetch, maxPrefetch)
+                : clamp(prefetch, minPrefetch, maxPrefetch);
+
+        return new Decision(nextConsumers, nextPrefetch, reason);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public static class Decision {
+        private final int consumers;
+        private final int prefetch;
+        private final String reason;
+
+        Decision(int consumers, int prefetch, String reason) {
+            this.consumers = consumers;
+            this.prefetch = prefetch;
+            this.reason = reason;
+        }
+
+        public int getConsumers() {
+            return consumers;
+        }
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package uk.ac.ebi.subs.validator.biosamples.graph;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds a {@link SubmissionRelationshipGraph} for each submission with samples in flight.
+ *
+ * The validator is not told when a submission is complete, so the graph of a submission is dropped once no sample
+ * of it has been validated for {@code biosamples.validator.relationship-graph.idle-minutes},
+ * or when the index holds more than {@code biosamples.validator.relationship-graph.maximum-submissions} graphs.
+ * That is when the submission is taken to be over: the relationship targets that never turned out to be samples of it
+ * are logged then, and counted in {@code biosamples.validator.relationship-graph.unresolved-targets}. Idle graphs are
+ * dropped while the graphs of other submissions are looked up, so this happens while samples keep arriving.
+ */
+@Component
+@ConditionalOnProperty(name = "biosamples.validator.relationship-graph.enabled", havingValue = "true")
+public class RelationshipGraphIndex implements PublicMetrics {
+    private static Logger logger = LoggerFactory.getLogger(RelationshipGraphIndex.class);
+
+    private static final int LOGGED_TARGETS = 10;
+
+    private final Cache<String, SubmissionRelationshipGraph> graphs;
+
+    private final AtomicLong unresolvedTargets = new AtomicLong();
+
+    @Autowired
+    public RelationshipGraphIndex(@Value("${biosamples.validator.relationship-graph.idle-minutes:120}") long idleMinutes,
+                                  @Value("${biosamples.validator.relationship-graph.maximum-submissions:1000}") long maximumSubmissions) {
+        this(idleMinutes, maximumSubmissions, Ticker.systemTicker());
+    }
+
+    public RelationshipGraphIndex(long idleMinutes, long maximumSubmissions, Ticker ticker) {
+        this.graphs = Caffeine.newBuilder()
+                .expireAfterAccess(idleMinutes, TimeUnit.MINUTES)
+                .maximumSize(maximumSubmissions)
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .removalListener((String submissionId, SubmissionRelationshipGraph graph, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        submissionDropped(submissionId, graph);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return the graph of the submission, a new one if the submission has none or has been idle for too long
+     */
+    public SubmissionRelationshipGraph graphOf(String submissionId) {
+        return graphs.get(submissionId, id -> new SubmissionRelationshipGraph());
+    }
+
+    private void submissionDropped(String submissionId, SubmissionRelationshipGraph graph) {
+        List<String> unresolved;
+        synchronized (graph) {
+            unresolved = graph.unresolvedTargets();
+        }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        unresolvedTargets.addAndGet(unresolved.size());
+        logger.warn("Submission {} has relationships to {} aliases that are not samples of it: {}{}", submissionId,
+                unresolved.size(), unresolved.subList(0, Math.min(LOGGED_TARGETS, unresolved.size())),
+                unresolved.size() > LOGGED_TARGETS ? " and more" : "");
+    }
+
+    /**
+     * @return the relationship targets of the dropped submissions that were not samples of them
+     */
+    public long getUnresolvedTargets() {
+        return unresolvedTargets.get();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long nodes = graphs.asMap().values().stream().mapToLong(SubmissionRelationshipGraph::size).sum();
+        return Arrays.asList(
+                new Metric<>("biosamples.validator.relationship-graph.submissions", graphs.estimatedSize()),
+                new Metric<>("biosamples.validator.relationship-graph.nodes", nodes),
+                new Metric<>("biosamples.validator.relationship-graph.unresolved-targets", unresolvedTargets.get()));
+    }
+}
@@ -0,0 +1,302 @@
+package uk.ac.ebi.subs.validator.biosamples.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The relationship graph of the samples of one submission.
+ *
+ * Samples are nodes with compact integer ids, assigned in the order their alias is first seen, either as a sample
+ * or as the target of a relationship. A node is declared once the sample itself has been validated.
+ *
+ * Every relationship, whatever its nature, is recorded as a reference to its target, so the targets that never turned
+ * out to be samples of the submission can be told once it is over, see {@link #unresolvedTargets()}; until then,
+ * a target may simply not have arrived yet.
+ *
+ * The graph is kept acyclic: an edge that would close a cycle is refused. Cycles are detected with the dynamic
+ * topological ordering of Pearce and Kelly, so an edge that agrees with the current order is added in constant time,
+ * and otherwise only the nodes between the two ends of the edge in the current order are visited.
+ *
+ * Instances are not thread safe, callers synchronize on the graph.
+ */
+public class SubmissionRelationshipGraph {
+
+    private static final int[] NO_EDGES = new int[0];
+
+    private final Map<String, Integer> nodeIds = new HashMap<>();
+    private String[] aliases = new String[16];
+    private int nodeCount;
+
+    private int[] order = new int[16];
+    private int[][] successors = new int[16][];
+    private int[] successorCounts = new int[16];
+    private int[][] predecessors = new int[16][];
+    private int[] predecessorCounts = new int[16];
+    private boolean[] declared = new boolean[16];
+    private int[][] references = new int[16][];
+    private int[] referenceCounts = new int[16];
+    private int[] referrerCounts = new int[16];
+
+    private int[] visitMarks = new int[16];
+    private int visitEpoch;
+    private IntList stack = new IntList();
+
+    public int nodeId(String alias) {
+        Integer nodeId = nodeIds.get(alias);
+        if (nodeId != null) {
+            return nodeId;
+        }
+
+        int newNodeId = nodeCount++;
+        ensureCapacity(nodeCount);
+        order[newNodeId] = newNodeId;
+        successors[newNodeId] = NO_EDGES;
+        predecessors[newNodeId] = NO_EDGES;
+        references[newNodeId] = NO_EDGES;
+        aliases[newNodeId] = alias;
+        nodeIds.put(alias, newNodeId);
+        return newNodeId;
+    }
+
+    public int size() {
+        return nodeCount;
+    }
+
+    public boolean isDeclared(int node) {
+        return declared[node];
+    }
+
+    /**
+     * Marks the node as a validated sample and drops its outgoing edges and references, so the relationships of
+     * a re-validated sample replace the ones of its previous version. Removing edges never breaks the topological order.
+     */
+    public void declare(int node) {
+        declared[node] = true;
+        for (int i = 0; i < successorCounts[node]; i++) {
+            removePredecessor(successors[node][i], node);
+        }
+        successorCounts[node] = 0;
+        for (int i = 0; i < referenceCounts[node]; i++) {
+            referrerCounts[references[node][i]]--;
+        }
+        referenceCounts[node] = 0;
+    }
+
+    /**
+     * Records a relationship {@code from -> to} of any nature.
+     */
+    public void refer(int from, int to) {
+        references[from] = append(references[from], referenceCounts[from]++, to);
+        referrerCounts[to]++;
+    }
+
+    /**
+     * @return the aliases that are the target of a relationship, but not a sample validated so far
+     */
+    public List<String> unresolvedTargets() {
+        List<String> unresolved = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            if (!declared[node] && referrerCounts[node] > 0) {
+                unresolved.add(aliases[node]);
+            }
+        }
+        return unresolved;
+    }
+
+    /**
+     * Adds the edge {@code from -> to}, unless it would close a cycle.
+     *
+     * @return false if the edge was refused because it would close a cycle
+     */
+    public boolean addEdge(int from, int to) {
+        if (from == to) {
+            return false;
+        }
+        for (int i = 0; i < successorCounts[from]; i++) {
+            if (successors[from][i] == to) {
+                return true;
+            }
+        }
+
+        int lowerBound = order[to];
+        int upperBound = order[from];
+        if (lowerBound < upperBound) {
+            IntList forward = forwardAffected(to, upperBound);
+            if (forward == null) {
+                return false;
+            }
+            IntList backward = backwardAffected(from, lowerBound);
+            reorder(backward, forward);
+        }
+
+        successors[from] = append(successors[from], successorCounts[from]++, to);
+        predecessors[to] = append(predecessors[to], predecessorCounts[to]++, from);
+        return true;
+    }
+
+    /**
+     * Nodes reachable from {@code start} that are ordered before {@code upperBound},
+     * or null if the node at {@code upperBound} is reachable, in which case the new edge would close a cycle.
+     */
+    private IntList forwardAffected(int start, int upperBound) {
+        IntList affected = new IntList();
+        newVisit();
+        visit(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            affected.add(node);
+            for (int i = 0; i < successorCounts[node]; i++) {
+                int successor = successors[node][i];
+                if (order[successor] == upperBound) {
+                    return null;
+                }
+                if (visitMarks[successor] != visitEpoch && order[successor] < upperBound) {
+                    visit(successor);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Nodes that reach {@code start} and are ordered after {@code lowerBound}.
+     */
+    private IntList backwardAffected(int start, int lowerBound) {
+        IntList affected = new IntList();
+        newVisit();
+        visit(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            affected.add(node);
+            for (int i = 0; i < predecessorCounts[node]; i++) {
+                int predecessor = predecessors[node][i];
+                if (visitMarks[predecessor] != visitEpoch && order[predecessor] > lowerBound) {
+                    visit(predecessor);
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Gives the affected nodes their positions back, the backward ones first, each group keeping its relative order.
+     */
+    private void reorder(IntList backward, IntList forward) {
+        long[] backwardByOrder = sortedByOrder(backward);
+        long[] forwardByOrder = sortedByOrder(forward);
+
+        int[] positions = new int[backwardByOrder.length + forwardByOrder.length];
+        int p = 0;
+        for (long entry : backwardByOrder) {
+            positions[p++] = (int) (entry >>> 32);
+        }
+        for (long entry : forwardByOrder) {
+            positions[p++] = (int) (entry >>> 32);
+        }
+        Arrays.sort(positions);
+
+        p = 0;
+        for (long entry : backwardByOrder) {
+            order[(int) entry] = positions[p++];
+        }
+        for (long entry : forwardByOrder) {
+            order[(int) entry] = positions[p++];
+        }
+    }
+
+    private long[] sortedByOrder(IntList nodes) {
+        long[] entries = new long[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            int node = nodes.get(i);
+            entries[i] = ((long) order[node] << 32) | node;
+        }
+        Arrays.sort(entries);
+        return entries;
+    }
+
+    private void newVisit() {
+        visitEpoch++;
+        stack.clear();
+    }
+
+    private void visit(int node) {
+        visitMarks[node] = visitEpoch;
+        stack.add(node);
+    }
+
+    private void removePredecessor(int node, int predecessor) {
+        int[] nodePredecessors = predecessors[node];
+        int count = predecessorCounts[node];
+        for (int i = 0; i < count; i++) {
+            if (nodePredecessors[i] == predecessor) {
+                nodePredecessors[i] = nodePredecessors[count - 1];
+                predecessorCounts[node] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private static int[] append(int[] edges, int index, int node) {
+        if (index == edges.length) {
+            edges = Arrays.copyOf(edges, Math.max(4, edges.length * 2));
+        }
+        edges[index] = node;
+        return edges;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= order.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, order.length * 2);
+        order = Arrays.copyOf(order, newCapacity);
+        successors = Arrays.copyOf(successors, newCapacity);
+        successorCounts = Arrays.copyOf(successorCounts, newCapacity);
+        predecessors = Arrays.copyOf(predecessors, newCapacity);
+        predecessorCounts = Arrays.copyOf(predecessorCounts, newCapacity);
+        declared = Arrays.copyOf(declared, newCapacity);
+        aliases = Arrays.copyOf(aliases, newCapacity);
+        references = Arrays.copyOf(references, newCapacity);
+        referenceCounts = Arrays.copyOf(referenceCounts, newCapacity);
+        referrerCounts = Arrays.copyOf(referrerCounts, newCapacity);
+        visitMarks = Arrays.copyOf(visitMarks, newCapacity);
+    }
+
+    /**
+     * A growable list of primitive ints.
+     */
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package uk.ac.ebi.subs.validator.biosamples.graph;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the relationships of a sample against the other samples of its submission:
+ * a relationship that would close a cycle of {@code biosamples.validator.relationship-graph.acyclic-natures}
+ * relationships is an error.
+ *
+ * Samples arrive in no particular order, so a relationship to an alias not seen as a sample yet proves nothing about
+ * the sample; the targets still unresolved when the graph of the submission is dropped are reported then,
+ * see {@link RelationshipGraphIndex}.
+ *
+ * The outcome depends on the samples validated before, so its results are never cached.
+ */
+@Component
+@Order(400)
+@ConditionalOnProperty(name = "biosamples.validator.relationship-graph.enabled", havingValue = "true")
+public class SubmissionRelationshipGraphRule implements SampleValidationRule {
+
+    public static final String RELATIONSHIP_CYCLE = "SampleRelationship: [%s] to [%s] closes a cycle of relationships in the submission.";
+    /**
+     * No longer reported per sample, as it depended on the order the samples arrived in; kept so the codes of the
+     * {@link uk.ac.ebi.subs.validator.biosamples.results.MessageCatalog} do not shift.
+     */
+    public static final String RELATIONSHIP_TARGET_NOT_IN_SUBMISSION = "SampleRelationship target alias: [%s] is not among the samples of this submission validated so far.";
+
+    private final RelationshipGraphIndex relationshipGraphIndex;
+    private final Set<String> acyclicNatures;
+
+    @Autowired
+    public SubmissionRelationshipGraphRule(RelationshipGraphIndex relationshipGraphIndex,
+                                           @Value("${biosamples.validator.relationship-graph.acyclic-natures:derived from,child of}") String[] acyclicNatures) {
+        this(relationshipGraphIndex, List.of(acyclicNatures));
+    }
+
+    public SubmissionRelationshipGraphRule(RelationshipGraphIndex relationshipGraphIndex, Collection<String> acyclicNatures) {
+        this.relationshipGraphIndex = relationshipGraphIndex;
+        this.acyclicNatures = acyclicNatures.stream().map(String::trim).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ALIAS, SampleField.SAMPLE_RELATIONSHIPS);
+    }
+
+    @Override
+    public String cacheKey() {
+        return getClass().getName() + new TreeSet<>(acyclicNatures);
+    }
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        Sample sample = context.getSample();
+        String submissionId = context.getSubmissionId();
+        String alias = sample.getAlias();
+        if (submissionId == null || alias == null || alias.isEmpty()) {
+            return;
+        }
+
+        List<SampleRelationship> sampleRelationships = sample.getSampleRelationships();
+        SubmissionRelationshipGraph graph = relationshipGraphIndex.graphOf(submissionId);
+
+        synchronized (graph) {
+            int node = graph.nodeId(alias);
+            graph.declare(node);
+
+            if (sampleRelationships == null) {
+                return;
+            }
+
+            for (SampleRelationship sampleRelationship : sampleRelationships) {
+                if (sampleRelationship == null || sampleRelationship.getAlias() == null || sampleRelationship.getAlias().trim().isEmpty()) {
+                    continue;
+                }
+
+                String targetAlias = sampleRelationship.getAlias().trim();
+                int target = graph.nodeId(targetAlias);
+                graph.refer(node, target);
+
+                if (acyclicNatures.contains(sampleRelationship.getRelationshipNature()) && !graph.addEdge(node, target)) {
+                    context.addError(RELATIONSHIP_CYCLE, alias, targetAlias);
+                }
+            }
+        }
+    }
+}
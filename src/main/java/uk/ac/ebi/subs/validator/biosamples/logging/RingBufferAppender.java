@@ -0,0 +1,199 @@
+package uk.ac.ebi.subs.validator.biosamples.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands logging events over to its attached appenders on a background thread, through a bounded lock-free
+ * {@link MpscRingBuffer}, so the logging threads never wait for stdout, files or the network.
+ *
+ * When the buffer is full, the {@link DropPolicy} decides what happens to INFO and lower events: they are dropped,
+ * or the logging thread waits for room. WARN and ERROR events are never dropped, they always wait for room.
+ * The number of dropped events is logged as a warning once the buffer has drained.
+ *
+ * <pre>
+ * &lt;appender name="ASYNC" class="uk.ac.ebi.subs.validator.biosamples.logging.RingBufferAppender"&gt;
+ *     &lt;capacity&gt;8192&lt;/capacity&gt;
+ *     &lt;dropPolicy&gt;DROP&lt;/dropPolicy&gt;
+ *     &lt;appender-ref ref="stdout"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    public enum DropPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private int capacity = 8192;
+    private DropPolicy dropPolicy = DropPolicy.DROP;
+    private boolean includeCallerData = false;
+    private long maxFlushTimeMillis = 1000;
+
+    private MpscRingBuffer<ILoggingEvent> buffer;
+    private Thread worker;
+    private volatile boolean running;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setDropPolicy(DropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (capacity < 2) {
+            addError("Invalid capacity " + capacity + " of appender " + getName());
+            return;
+        }
+
+        buffer = new MpscRingBuffer<>(capacity);
+        running = true;
+        worker = new Thread(this::drain, "logback-ring-buffer-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Appender " + getName() + " did not flush its " + buffer.size() + " events within " + maxFlushTimeMillis + " ms");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (dropPolicy == DropPolicy.DROP && !event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            dropped.increment();
+            return;
+        }
+        while (!buffer.offer(event)) {
+            if (!running) {
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private void drain() {
+        long reportedDropped = 0;
+        while (true) {
+            ILoggingEvent event = buffer.poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+
+            long droppedSoFar = dropped.sum();
+            if (droppedSoFar > reportedDropped) {
+                appenders.appendLoopOnAppenders(droppedEventsWarning(droppedSoFar - reportedDropped));
+                reportedDropped = droppedSoFar;
+                continue;
+            }
+
+            if (!running) {
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private ILoggingEvent droppedEventsWarning(long count) {
+        LoggerContext loggerContext = (LoggerContext) getContext();
+        return new LoggingEvent(RingBufferAppender.class.getName(), loggerContext.getLogger(RingBufferAppender.class),
+                Level.WARN, "Dropped {} log events of INFO level or lower, the buffer of appender {} was full",
+                null, new Object[]{count, getName()});
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.ac.ebi.subs.validator.biosamples.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most a given number of INFO lines per second through a {@link Logger}, for the lines written for every
+ * message, and counts the lines it suppressed. The count is reported by {@link ValidationLogSummary}.
+ *
+ * A limit of 0 suppresses all the lines.
+ */
+public class SampledLogger {
+
+    private static final LongAdder SUPPRESSED = new LongAdder();
+
+    private final Logger logger;
+    private final int linesPerSecond;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger linesInCurrentSecond = new AtomicInteger();
+
+    public SampledLogger(Logger logger, int linesPerSecond) {
+        this.logger = logger;
+        this.linesPerSecond = linesPerSecond;
+    }
+
+    /**
+     * @return the number of lines suppressed by all the sampled loggers so far
+     */
+    public static long suppressedLines() {
+        return SUPPRESSED.sum();
+    }
+
+    public void info(String format, Object argument) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        if (tryAcquire()) {
+            logger.info(format, argument);
+        } else {
+            SUPPRESSED.increment();
+        }
+    }
+
+    private boolean tryAcquire() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long previousSecond = currentSecond.get();
+        if (second != previousSecond && currentSecond.compareAndSet(previousSecond, second)) {
+            linesInCurrentSecond.set(0);
+        }
+        return linesInCurrentSecond.incrementAndGet() <= linesPerSecond;
+    }
+}
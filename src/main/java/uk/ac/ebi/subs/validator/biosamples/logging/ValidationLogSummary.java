@@ -0,0 +1,92 @@
+package uk.ac.ebi.subs.validator.biosamples.logging;
+
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs one line of what the validator did every {@code biosamples.validator.logging.summary-interval-seconds},
+ * in place of the per message lines suppressed by the {@link SampledLogger}s: the messages handled and their rate,
+ * the share of the published results with errors, the retries, and the number of suppressed lines.
+ *
+ * An interval of 0 switches the summary off.
+ */
+@Component
+public class ValidationLogSummary implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(ValidationLogSummary.class);
+
+    private final ValidationMetrics validationMetrics;
+    private final Timer handlingTimer;
+    private final long intervalSeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "validation-log-summary");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean started;
+    private long lastHandled;
+    private long lastPublished;
+    private long lastErrors;
+    private long lastRetries;
+    private long lastSuppressed;
+
+    @Autowired
+    public ValidationLogSummary(ValidationMetrics validationMetrics,
+                                @Value("${biosamples.validator.logging.summary-interval-seconds:60}") long intervalSeconds) {
+        this.validationMetrics = validationMetrics;
+        this.handlingTimer = validationMetrics.getHandlingTimer();
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(ContextRefreshedEvent event) {
+        if (started || intervalSeconds <= 0) {
+            return;
+        }
+        started = true;
+        scheduler.scheduleAtFixedRate(this::logSummary, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    synchronized void logSummary() {
+        long handled = handlingTimer.count();
+        long errors = validationMetrics.resultCount(SingleValidationResultStatus.Error);
+        long published = errors
+                + validationMetrics.resultCount(SingleValidationResultStatus.Warning)
+                + validationMetrics.resultCount(SingleValidationResultStatus.Pass);
+        long retries = validationMetrics.getRetriesScheduled() + validationMetrics.getRetriesExhausted();
+        long suppressed = SampledLogger.suppressedLines();
+
+        long handledDelta = handled - lastHandled;
+        long publishedDelta = published - lastPublished;
+        double errorPercentage = publishedDelta == 0 ? 0 : (errors - lastErrors) * 100d / publishedDelta;
+
+        logger.info(String.format("In the last %d s: %d messages handled (%.1f/s), %.1f%% of %d results with errors, %d retries, %d log lines suppressed",
+                intervalSeconds, handledDelta, (double) handledDelta / intervalSeconds, errorPercentage, publishedDelta,
+                retries - lastRetries, suppressed - lastSuppressed));
+
+        lastHandled = handled;
+        lastPublished = published;
+        lastErrors = errors;
+        lastRetries = retries;
+        lastSuppressed = suppressed;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,14 +1,25 @@
 package uk.ac.ebi.subs.validator.biosamples.messaging;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import uk.ac.ebi.subs.messaging.ExchangeConfig;
 import uk.ac.ebi.subs.messaging.Queues;
+import uk.ac.ebi.subs.validator.biosamples.scheduling.FairScheduler;
+
+import java.util.List;
 
 import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
 import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_BIOSAMPLES_SAMPLE_VALIDATION;
@@ -21,6 +32,11 @@ import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorR
 @Configuration
 @ComponentScan(basePackageClasses = ExchangeConfig.class)
 public class BiosamplesMessagingConfiguration {
+    private static Logger logger = LoggerFactory.getLogger(BiosamplesMessagingConfiguration.class);
+
+    public static final String VALIDATION_LISTENER_CONTAINER_FACTORY = "biosamplesValidationListenerContainerFactory";
+
+    public static final String VALIDATION_LISTENER_ID = "biosamplesValidationListener";
 
     /**
      * Instantiate a {@link Queue} for validate samples related to BioSamples.
@@ -32,6 +48,17 @@ public class BiosamplesMessagingConfiguration {
         return Queues.buildQueueWithDlx(BIOSAMPLES_SAMPLE_VALIDATION);
     }
 
+    /**
+     * Instantiate the delay queues failed validation requests wait in before they are retried.
+     *
+     * @param delayedRetry the retry settings
+     * @return a {@link Queue} for each distinct retry delay
+     */
+    @Bean
+    List<Queue> biosamplesSampleDelayQueues(DelayedRetry delayedRetry) {
+        return delayedRetry.delayQueues();
+    }
+
     /**
      * Create a {@link Binding} between the validation exchange and BioSamples sample validation queue
      * using the routing key of created samples related to BioSamples.
@@ -46,4 +73,35 @@ public class BiosamplesMessagingConfiguration {
         return BindingBuilder.bind(biosamplesSampleQueue).to(submissionExchange)
                 .with(EVENT_BIOSAMPLES_SAMPLE_VALIDATION);
     }
+
+    /**
+     * Create the listener container factory of the BioSamples sample validation listener.
+     * It is set up like the default factory, except that messages are acknowledged manually,
+     * so the listener can ack them once their validation completes on another thread.
+     * With fair scheduling the prefetch is at least the minimum of the {@link FairScheduler}.
+     *
+     * @param configurer applies the spring.rabbitmq.listener settings
+     * @param connectionFactory the RabbitMQ {@link ConnectionFactory}
+     * @param fairScheduler the {@link FairScheduler}, if fair scheduling is enabled
+     * @param prefetchCount the number of unacknowledged messages a consumer may hold
+     * @return a manually acknowledging {@link SimpleRabbitListenerContainerFactory}
+     */
+    @Bean(name = VALIDATION_LISTENER_CONTAINER_FACTORY)
+    SimpleRabbitListenerContainerFactory biosamplesValidationListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            ObjectProvider<FairScheduler> fairScheduler,
+            @Value("${biosamples.validator.listener.prefetch:50}") int prefetchCount) {
+        FairScheduler scheduler = fairScheduler.getIfAvailable();
+        if (scheduler != null && prefetchCount < scheduler.getMinPrefetch()) {
+            logger.info("Raising the prefetch of the validation listener from {} to {} for fair scheduling",
+                    prefetchCount, scheduler.getMinPrefetch());
+            prefetchCount = scheduler.getMinPrefetch();
+        }
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(prefetchCount);
+        return factory;
+    }
 }
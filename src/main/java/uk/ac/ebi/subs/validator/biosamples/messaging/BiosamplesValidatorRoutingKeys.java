@@ -5,5 +5,5 @@ public class BiosamplesValidatorRoutingKeys {
     public static final String EVENT_VALIDATION_SUCCESS = "validation.success";
     public static final String EVENT_VALIDATION_ERROR = "validation.error";
 
-    static final String EVENT_BIOSAMPLES_SAMPLE_VALIDATION = "biosamples.sample.validation";
+    public static final String EVENT_BIOSAMPLES_SAMPLE_VALIDATION = "biosamples.sample.validation";
 }
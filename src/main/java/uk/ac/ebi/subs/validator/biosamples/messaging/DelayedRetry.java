@@ -0,0 +1,154 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorQueues.BIOSAMPLES_SAMPLE_VALIDATION;
+
+/**
+ * Retries failed validation requests on the broker side, so no consumer thread ever waits for a retry.
+ *
+ * A failed message is sent, through the default exchange, to a delay queue without consumers whose messages expire
+ * after the delay of its attempt, and are then dead lettered back to the validation queue. The number of retries so far
+ * travels in the {@value #ATTEMPT_HEADER} header. Delays start at {@code initial-interval-ms} and grow by
+ * {@code multiplier} up to {@code max-interval-ms}; a message that failed {@code max-attempts} times is rejected,
+ * so it ends up on the dead letter exchange of the validation queue.
+ *
+ * A failed message is only acked once the broker has confirmed its copy in the delay queue, see {@link PublisherConfirms};
+ * if the copy is nacked or not confirmed within {@code confirm-timeout-ms}, the message is requeued instead.
+ *
+ * Delay queues are named after their delay, so changing the delays creates new queues instead of clashing with
+ * the arguments of the existing ones.
+ */
+@Component
+public class DelayedRetry {
+    private static Logger logger = LoggerFactory.getLogger(DelayedRetry.class);
+
+    public static final String ATTEMPT_HEADER = "x-validation-attempt";
+
+    private final PublisherConfirms publisherConfirms;
+
+    private final ValidationMetrics validationMetrics;
+
+    private final long[] retryDelays;
+
+    private final long confirmTimeoutMillis;
+
+    @Autowired
+    public DelayedRetry(PublisherConfirms publisherConfirms, ValidationMetrics validationMetrics,
+                        @Value("${biosamples.validator.retry.max-attempts:3}") int maxAttempts,
+                        @Value("${biosamples.validator.retry.initial-interval-ms:5000}") long initialIntervalMillis,
+                        @Value("${biosamples.validator.retry.multiplier:2}") double multiplier,
+                        @Value("${biosamples.validator.retry.max-interval-ms:35000}") long maxIntervalMillis,
+                        @Value("${biosamples.validator.retry.confirm-timeout-ms:5000}") long confirmTimeoutMillis) {
+        this.publisherConfirms = publisherConfirms;
+        this.validationMetrics = validationMetrics;
+        this.retryDelays = retryDelays(maxAttempts, initialIntervalMillis, multiplier, maxIntervalMillis);
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    /**
+     * @return the delay before each retry, one less than the attempts as the first attempt is not delayed
+     */
+    public static long[] retryDelays(int maxAttempts, long initialIntervalMillis, double multiplier, long maxIntervalMillis) {
+        long[] retryDelays = new long[Math.max(0, maxAttempts - 1)];
+        double delay = initialIntervalMillis;
+        for (int i = 0; i < retryDelays.length; i++) {
+            retryDelays[i] = Math.min(maxIntervalMillis, Math.round(delay));
+            delay *= multiplier;
+        }
+        return retryDelays;
+    }
+
+    public static String delayQueueName(long delayMillis) {
+        return BIOSAMPLES_SAMPLE_VALIDATION + ".retry-" + delayMillis + "ms";
+    }
+
+    /**
+     * @return the delay queues to declare, one for each distinct retry delay
+     */
+    public List<Queue> delayQueues() {
+        Set<Long> distinctDelays = new LinkedHashSet<>();
+        for (long retryDelay : retryDelays) {
+            distinctDelays.add(retryDelay);
+        }
+
+        List<Queue> delayQueues = new ArrayList<>(distinctDelays.size());
+        for (long delay : distinctDelays) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("x-message-ttl", delay);
+            arguments.put("x-dead-letter-exchange", "");
+            arguments.put("x-dead-letter-routing-key", BIOSAMPLES_SAMPLE_VALIDATION);
+            delayQueues.add(new Queue(delayQueueName(delay), true, false, false, arguments));
+        }
+        return delayQueues;
+    }
+
+    /**
+     * Sends the message of a failed validation to the delay queue of its next attempt and acks it once the broker
+     * confirmed the copy, or rejects it if it has no attempts left.
+     * If it can not be sent or its copy is not confirmed, it is requeued instead.
+     *
+     * It never waits for the confirm: the message is acked or requeued from the thread that completes it, so the caller,
+     * a consumer or a validation thread, is free as soon as the copy is sent.
+     */
+    public void retryOrReject(PendingValidation pendingValidation) {
+        Message message = pendingValidation.getMessage();
+        int retry = nextRetryOf(message);
+
+        if (retry > retryDelays.length) {
+            logger.error("Validation request with delivery tag {} failed {} times, rejecting it",
+                    message.getMessageProperties().getDeliveryTag(), retry);
+            validationMetrics.retryExhausted();
+            pendingValidation.reject();
+            return;
+        }
+
+        long delay = retryDelays[retry - 1];
+        message.getMessageProperties().setHeader(ATTEMPT_HEADER, retry);
+        CompletableFuture<Void> confirm;
+        try {
+            confirm = publisherConfirms.send("", delayQueueName(delay), message);
+        } catch (AmqpException e) {
+            logger.error("Could not send validation request for retry, requeueing it", e);
+            pendingValidation.requeue();
+            return;
+        }
+
+        confirm.orTimeout(confirmTimeoutMillis, TimeUnit.MILLISECONDS).whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                logger.error("Validation request for retry was not confirmed, requeueing it", throwable);
+                pendingValidation.requeue();
+                return;
+            }
+            logger.warn("Retrying validation request in {} ms, attempt {} of {}", delay, retry + 1, retryDelays.length + 1);
+            validationMetrics.retryScheduled();
+            pendingValidation.ack();
+        });
+    }
+
+    /**
+     * @return the number of the retry this failure leads to, 1 after the first attempt failed
+     */
+    private static int nextRetryOf(Message message) {
+        Object header = message.getMessageProperties().getHeaders().get(ATTEMPT_HEADER);
+        int previousRetries = header instanceof Number ? ((Number) header).intValue() : 0;
+        return previousRetries + 1;
+    }
+}
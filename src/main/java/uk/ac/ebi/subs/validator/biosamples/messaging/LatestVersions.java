@@ -0,0 +1,68 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latest {@code validationResultVersion} received for each sample id, so the validation of an envelope that
+ * has already been superseded by a newer one can be skipped: the results of an older version are thrown away
+ * downstream anyway.
+ *
+ * The map is bounded by size and by time since a sample was last seen. Forgetting a sample only means that
+ * its next stale envelope is validated again, so eviction never loses results.
+ */
+@Component
+public class LatestVersions {
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, Integer> versions;
+
+    @Autowired
+    public LatestVersions(@Value("${biosamples.validator.supersede.enabled:true}") boolean enabled,
+                          @Value("${biosamples.validator.supersede.maximum-size:100000}") long maximumSize,
+                          @Value("${biosamples.validator.supersede.expire-after-access-minutes:60}") long expireAfterAccessMinutes) {
+        this.enabled = enabled;
+        Cache<String, Integer> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .build();
+        this.versions = cache.asMap();
+    }
+
+    /**
+     * Records the version of a received envelope, unless a newer version of its sample has been seen already.
+     */
+    public void received(SampleValidationMessageEnvelope envelope) {
+        String sampleId = sampleIdOf(envelope);
+        if (enabled && sampleId != null) {
+            versions.merge(sampleId, envelope.getValidationResultVersion(), Math::max);
+        }
+    }
+
+    /**
+     * @return true if a newer version of the sample of the envelope has been received since
+     */
+    public boolean isSuperseded(SampleValidationMessageEnvelope envelope) {
+        String sampleId = sampleIdOf(envelope);
+        if (!enabled || sampleId == null) {
+            return false;
+        }
+        Integer latest = versions.get(sampleId);
+        return latest != null && latest > envelope.getValidationResultVersion();
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private static String sampleIdOf(SampleValidationMessageEnvelope envelope) {
+        return envelope.getEntityToValidate() == null ? null : envelope.getEntityToValidate().getId();
+    }
+}
@@ -0,0 +1,86 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.io.IOException;
+
+/**
+ * A validation request that has been received, but not yet acknowledged.
+ * It keeps the channel and delivery tag of the message so it can be acked or nacked on its own,
+ * whatever happens to the rest of its batch, and from whichever thread finishes its validation.
+ * It also keeps the message itself, so it can be sent again for a {@link DelayedRetry}.
+ */
+public class PendingValidation {
+    private static Logger logger = LoggerFactory.getLogger(PendingValidation.class);
+
+    private final SampleValidationMessageEnvelope envelope;
+    private final Message message;
+    private final Channel channel;
+    private final long deliveryTag;
+    private final long receivedNanos;
+
+    public PendingValidation(SampleValidationMessageEnvelope envelope, Message message, Channel channel, long receivedNanos) {
+        this.envelope = envelope;
+        this.message = message;
+        this.channel = channel;
+        this.deliveryTag = message.getMessageProperties().getDeliveryTag();
+        this.receivedNanos = receivedNanos;
+    }
+
+    public SampleValidationMessageEnvelope getEnvelope() {
+        return envelope;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the message was received at
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    public void ack() {
+        ack(channel, deliveryTag);
+    }
+
+    /**
+     * Rejects the message without requeueing it, so the broker routes it to the dead letter exchange.
+     */
+    public void reject() {
+        reject(channel, deliveryTag);
+    }
+
+    /**
+     * Hands the message back to the broker for immediate redelivery, e.g. when it could not be sent for a delayed retry.
+     */
+    public void requeue() {
+        try {
+            channel.basicNack(deliveryTag, false, true);
+        } catch (IOException e) {
+            logger.error("Could not requeue message with delivery tag {}", deliveryTag, e);
+        }
+    }
+
+    public static void ack(Channel channel, long deliveryTag) {
+        try {
+            channel.basicAck(deliveryTag, false);
+        } catch (IOException e) {
+            logger.error("Could not ack message with delivery tag {}", deliveryTag, e);
+        }
+    }
+
+    public static void reject(Channel channel, long deliveryTag) {
+        try {
+            channel.basicNack(deliveryTag, false, false);
+        } catch (IOException e) {
+            logger.error("Could not reject message with delivery tag {}", deliveryTag, e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.CorrelationData;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends messages with publisher confirms, on a connection of its own.
+ *
+ * The channels of the shared connection factory are cached and reused by every {@link RabbitTemplate},
+ * so none of them may be put in confirm mode. This connection factory is only used here, has publisher confirms
+ * switched on, and its confirms are matched to the sent messages by their correlation data.
+ * The connection is opened on the first send.
+ */
+@Component
+public class PublisherConfirms implements DisposableBean {
+
+    private final CachingConnectionFactory connectionFactory;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final Map<String, CompletableFuture<Void>> pendingConfirms = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PublisherConfirms(RabbitProperties rabbitProperties) {
+        this(confirmingConnectionFactory(rabbitProperties));
+    }
+
+    PublisherConfirms(CachingConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.rabbitTemplate = new RabbitTemplate(connectionFactory);
+        this.rabbitTemplate.setConfirmCallback(this::confirmed);
+    }
+
+    private static CachingConnectionFactory confirmingConnectionFactory(RabbitProperties rabbitProperties) {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory();
+        connectionFactory.setAddresses(rabbitProperties.determineAddresses());
+        connectionFactory.setUsername(rabbitProperties.determineUsername());
+        connectionFactory.setPassword(rabbitProperties.determinePassword());
+        connectionFactory.setVirtualHost(rabbitProperties.determineVirtualHost());
+        connectionFactory.setPublisherConfirms(true);
+        return connectionFactory;
+    }
+
+    /**
+     * Sends a message without waiting for its confirm.
+     *
+     * @return a future completed once the broker confirms the message,
+     * or completed exceptionally with an {@link AmqpException} if the broker nacks it;
+     * completing it any other way, e.g. with a timeout, stops waiting for its confirm
+     * @throws AmqpException if the message could not be sent
+     */
+    public CompletableFuture<Void> send(String exchange, String routingKey, Message message) {
+        String id = UUID.randomUUID().toString();
+        CompletableFuture<Void> confirm = new CompletableFuture<>();
+        pendingConfirms.put(id, confirm);
+        try {
+            rabbitTemplate.send(exchange, routingKey, message, new CorrelationData(id));
+        } catch (AmqpException e) {
+            pendingConfirms.remove(id);
+            throw e;
+        }
+        confirm.whenComplete((ignored, throwable) -> pendingConfirms.remove(id, confirm));
+        return confirm;
+    }
+
+    /**
+     * Waits once for the confirms of all the given sends.
+     *
+     * @throws AmqpException if any of the messages got nacked or the confirms timed out
+     */
+    public void awaitConfirms(List<CompletableFuture<Void>> confirms, long timeoutMillis) {
+        try {
+            CompletableFuture.allOf(confirms.toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof AmqpException ? (AmqpException) e.getCause() : new AmqpException(e.getCause());
+        } catch (TimeoutException e) {
+            forget(confirms);
+            throw new AmqpTimeoutException("Timed out after " + timeoutMillis + " ms waiting for publisher confirms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            forget(confirms);
+            throw new AmqpException(e);
+        }
+    }
+
+    private void forget(List<CompletableFuture<Void>> confirms) {
+        Set<CompletableFuture<Void>> forgotten = Collections.newSetFromMap(new IdentityHashMap<>());
+        forgotten.addAll(confirms);
+        pendingConfirms.values().removeIf(forgotten::contains);
+    }
+
+    private void confirmed(CorrelationData correlationData, boolean ack, String cause) {
+        CompletableFuture<Void> confirm = correlationData == null ? null : pendingConfirms.remove(correlationData.getId());
+        if (confirm == null) {
+            return;
+        }
+        if (ack) {
+            confirm.complete(null);
+        } else {
+            confirm.completeExceptionally(new AmqpException("The broker nacked a message: " + cause));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        connectionFactory.destroy();
+    }
+}
@@ -0,0 +1,203 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads sample validation requests with Jackson's streaming parser.
+ *
+ * Only the envelope fields and the fields of the sample the active rules read are materialized,
+ * everything else, e.g. the attributes of a sample when no rule reads them, is skipped token by token
+ * without building any object for it. The resulting sample is a partial view, good for validation only.
+ *
+ * Used by {@link ValidationRequestMessageConverter} when streaming conversion is enabled.
+ * The incoming {@link Message} itself is left untouched.
+ */
+public class StreamingSampleEnvelopeReader {
+
+    private static final TypeReference<Map<String, List<Attribute>>> ATTRIBUTES_TYPE =
+            new TypeReference<Map<String, List<Attribute>>>() {};
+
+    private final ObjectMapper objectMapper;
+
+    private final Set<SampleField> requiredFields;
+
+    public StreamingSampleEnvelopeReader(ObjectMapper objectMapper, Set<SampleField> requiredFields) {
+        this.objectMapper = objectMapper;
+        this.requiredFields = requiredFields.isEmpty() ? EnumSet.noneOf(SampleField.class) : EnumSet.copyOf(requiredFields);
+    }
+
+    public Set<SampleField> getRequiredFields() {
+        return requiredFields;
+    }
+
+    /**
+     * @throws MessageConversionException if the message body is not a sample validation request
+     */
+    public SampleValidationMessageEnvelope read(Message message) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(message.getBody())) {
+            return readEnvelope(parser);
+        } catch (IOException | RuntimeException e) {
+            throw new MessageConversionException("Could not read the sample validation request", e);
+        }
+    }
+
+    private SampleValidationMessageEnvelope readEnvelope(JsonParser parser) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (fieldName) {
+                case "validationResultUUID":
+                    envelope.setValidationResultUUID(textOrNull(parser, value));
+                    break;
+                case "validationResultVersion":
+                    envelope.setValidationResultVersion(value == JsonToken.VALUE_NULL ? 0 : parser.getValueAsInt());
+                    break;
+                case "submissionId":
+                    envelope.setSubmissionId(textOrNull(parser, value));
+                    break;
+                case "entityToValidate":
+                    envelope.setEntityToValidate(value == JsonToken.VALUE_NULL ? null : readSample(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (envelope.getEntityToValidate() == null) {
+            throw new MessageConversionException("The sample validation request has no entity to validate");
+        }
+        return envelope;
+    }
+
+    private Sample readSample(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+
+        Sample sample = new Sample();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (fieldName) {
+                case "id":
+                    sample.setId(parser.getText());
+                    break;
+                case "alias":
+                    if (requiredFields.contains(SampleField.ALIAS)) {
+                        sample.setAlias(parser.getText());
+                    }
+                    break;
+                case "releaseDate":
+                    if (requiredFields.contains(SampleField.RELEASE_DATE)) {
+                        sample.setReleaseDate(readLocalDate(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "sampleRelationships":
+                    if (requiredFields.contains(SampleField.SAMPLE_RELATIONSHIPS)) {
+                        sample.setSampleRelationships(readSampleRelationships(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "attributes":
+                    if (requiredFields.contains(SampleField.ATTRIBUTES)) {
+                        Map<String, List<Attribute>> attributes = objectMapper.readValue(parser, ATTRIBUTES_TYPE);
+                        sample.getAttributes().putAll(attributes);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Release dates come either as an ISO 8601 string or, with the default JSR-310 settings, as a [year, month, day] array.
+     */
+    private static LocalDate readLocalDate(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return LocalDate.parse(parser.getText());
+        }
+
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        int[] parts = new int[3];
+        for (int i = 0; i < parts.length; i++) {
+            expect(parser.nextToken(), JsonToken.VALUE_NUMBER_INT);
+            parts[i] = parser.getIntValue();
+        }
+        expect(parser.nextToken(), JsonToken.END_ARRAY);
+        return LocalDate.of(parts[0], parts[1], parts[2]);
+    }
+
+    private static List<SampleRelationship> readSampleRelationships(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+
+        List<SampleRelationship> sampleRelationships = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL) {
+                sampleRelationships.add(null);
+                continue;
+            }
+            expect(token, JsonToken.START_OBJECT);
+
+            SampleRelationship sampleRelationship = new SampleRelationship();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "accession":
+                        sampleRelationship.setAccession(textOrNull(parser, value));
+                        break;
+                    case "alias":
+                        sampleRelationship.setAlias(textOrNull(parser, value));
+                        break;
+                    case "relationshipNature":
+                        sampleRelationship.setRelationshipNature(textOrNull(parser, value));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            sampleRelationships.add(sampleRelationship);
+        }
+        return sampleRelationships;
+    }
+
+    private static String textOrNull(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new MessageConversionException("Expected " + expected + " but got " + actual);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitMessagingTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts the incoming AMQP messages of the manually acknowledged listeners into {@link SampleValidationMessageEnvelope}s,
+ * with the same message converter the rest of the application uses.
+ *
+ * With {@code biosamples.validator.streaming-conversion.enabled=true} the messages are read by a
+ * {@link StreamingSampleEnvelopeReader} instead, which only materializes the fields of the sample
+ * that the validation rules read.
+ */
+@Component
+public class ValidationRequestMessageConverter {
+    private static Logger logger = LoggerFactory.getLogger(ValidationRequestMessageConverter.class);
+
+    private final MessageConverter messageConverter;
+
+    private final StreamingSampleEnvelopeReader streamingReader;
+
+    @Autowired
+    public ValidationRequestMessageConverter(RabbitMessagingTemplate rabbitMessagingTemplate, List<SampleValidationRule> rules,
+                                             @Value("${biosamples.validator.streaming-conversion.enabled:false}") boolean streamingConversion) {
+        if (streamingConversion) {
+            Set<SampleField> requiredFields = requiredFields(rules);
+            logger.info("Reading validation requests with a streaming reader, materializing only {}", requiredFields);
+            this.streamingReader = new StreamingSampleEnvelopeReader(new ObjectMapper().findAndRegisterModules(), requiredFields);
+            this.messageConverter = null;
+        } else {
+            this.streamingReader = null;
+            this.messageConverter = rabbitMessagingTemplate.getRabbitTemplate().getMessageConverter();
+        }
+    }
+
+    static Set<SampleField> requiredFields(List<SampleValidationRule> rules) {
+        Set<SampleField> requiredFields = EnumSet.noneOf(SampleField.class);
+        for (SampleValidationRule rule : rules) {
+            requiredFields.addAll(rule.getRequiredFields());
+        }
+        return requiredFields;
+    }
+
+    /**
+     * @throws MessageConversionException if the message is not a sample validation request
+     */
+    public SampleValidationMessageEnvelope fromMessage(Message message) {
+        if (streamingReader != null) {
+            return streamingReader.read(message);
+        }
+
+        Object converted = messageConverter.fromMessage(message);
+        if (!(converted instanceof SampleValidationMessageEnvelope)) {
+            throw new MessageConversionException("Expected a SampleValidationMessageEnvelope, got " +
+                    (converted == null ? null : converted.getClass().getName()));
+        }
+        return (SampleValidationMessageEnvelope) converted;
+    }
+}
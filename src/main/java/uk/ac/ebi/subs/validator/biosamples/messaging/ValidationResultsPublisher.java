@@ -0,0 +1,128 @@
+package uk.ac.ebi.subs.validator.biosamples.messaging;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitMessagingTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.messaging.Exchanges;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.results.ResultsEncoding;
+import uk.ac.ebi.subs.validator.biosamples.results.ValidationResultsMessageConverter;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_ERROR;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_SUCCESS;
+
+/**
+ * Publishes {@link SingleValidationResultsEnvelope}s to the submissions exchange.
+ * An envelope containing at least one error goes out with the validation error routing key,
+ * otherwise with the validation success routing key.
+ *
+ * The envelopes are JSON by default. With {@code biosamples.validator.results.encoding} set to smile or cbor they are
+ * sent in that binary encoding instead, with the matching content type; see {@link ValidationResultsMessageConverter}.
+ */
+@Component
+public class ValidationResultsPublisher {
+
+    private final RabbitMessagingTemplate rabbitMessagingTemplate;
+
+    private final ValidationMetrics validationMetrics;
+
+    private final ValidationResultsMessageConverter resultsMessageConverter;
+
+    private final PublisherConfirms publisherConfirms;
+
+    @Autowired
+    public ValidationResultsPublisher(RabbitMessagingTemplate rabbitMessagingTemplate, ValidationMetrics validationMetrics,
+                                      PublisherConfirms publisherConfirms,
+                                      @Value("${biosamples.validator.results.encoding:json}") String encoding) {
+        this.rabbitMessagingTemplate = rabbitMessagingTemplate;
+        this.validationMetrics = validationMetrics;
+        this.publisherConfirms = publisherConfirms;
+        this.resultsMessageConverter = new ValidationResultsMessageConverter(
+                ResultsEncoding.valueOf(encoding.toUpperCase()), new JsonPayloadMessageConverter());
+    }
+
+    /**
+     * Sends a single results envelope without waiting for a broker confirmation.
+     *
+     * @param envelope the validation results to send
+     */
+    public void publish(SingleValidationResultsEnvelope envelope) {
+        String routingKey = routingKeyFor(envelope);
+
+        long start = System.nanoTime();
+        if (resultsMessageConverter.getEncoding() == ResultsEncoding.JSON) {
+            rabbitMessagingTemplate.convertAndSend(Exchanges.SUBMISSIONS, routingKey, envelope);
+        } else {
+            rabbitMessagingTemplate.getRabbitTemplate().send(Exchanges.SUBMISSIONS, routingKey,
+                    resultsMessageConverter.toMessage(envelope, new MessageProperties()));
+        }
+        validationMetrics.getSinglePublishTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        validationMetrics.resultsPublished(envelope, routingKey);
+    }
+
+    /**
+     * Sends all the given results envelopes through {@link PublisherConfirms}
+     * and waits once for the broker to confirm all of them.
+     *
+     * @param envelopes the validation results to send
+     * @param confirmTimeoutMillis how long to wait for the broker confirmations
+     * @throws org.springframework.amqp.AmqpException if any of the messages got nacked or the confirmations timed out
+     */
+    public void publishConfirmed(List<SingleValidationResultsEnvelope> envelopes, long confirmTimeoutMillis) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(envelopes.size());
+        for (SingleValidationResultsEnvelope envelope : envelopes) {
+            Message message = resultsMessageConverter.toMessage(envelope, new MessageProperties());
+            confirms.add(publisherConfirms.send(Exchanges.SUBMISSIONS, routingKeyFor(envelope), message));
+        }
+        publisherConfirms.awaitConfirms(confirms, confirmTimeoutMillis);
+        validationMetrics.getBatchPublishTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        for (SingleValidationResultsEnvelope envelope : envelopes) {
+            validationMetrics.resultsPublished(envelope, routingKeyFor(envelope));
+        }
+    }
+
+    /**
+     * Converts payloads to JSON messages the way {@link RabbitMessagingTemplate#convertAndSend} does.
+     */
+    private class JsonPayloadMessageConverter implements MessageConverter {
+
+        @Override
+        public Message toMessage(Object object, MessageProperties messageProperties) {
+            return rabbitMessagingTemplate.getAmqpMessageConverter().toMessage(MessageBuilder.withPayload(object).build(), messageProperties);
+        }
+
+        @Override
+        public Object fromMessage(Message message) {
+            return rabbitMessagingTemplate.getRabbitTemplate().getMessageConverter().fromMessage(message);
+        }
+    }
+
+    public static String routingKeyFor(SingleValidationResultsEnvelope envelope) {
+        for (SingleValidationResult singleValidationResult : envelope.getSingleValidationResults()) {
+            if (singleValidationResult.getValidationStatus().equals(SingleValidationResultStatus.Error)) {
+                return EVENT_VALIDATION_ERROR;
+            }
+        }
+        return EVENT_VALIDATION_SUCCESS;
+    }
+}
@@ -0,0 +1,54 @@
+package uk.ac.ebi.subs.validator.biosamples.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Publishes the validator's Micrometer meters on the actuator {@code /metrics} endpoint,
+ * which is what Spring Boot Admin reads.
+ *
+ * Each measurement becomes a metric named after the meter, its tag values and the measured statistic,
+ * e.g. {@code biosamples.validator.rule.SampleAliasRule.total_time}.
+ */
+@Component
+public class MicrometerPublicMetrics implements PublicMetrics {
+
+    private static final String PREFIX = "biosamples.validator.";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MicrometerPublicMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (!id.getName().startsWith(PREFIX)) {
+                continue;
+            }
+
+            StringBuilder name = new StringBuilder(id.getName());
+            for (Tag tag : id.getTags()) {
+                name.append('.').append(tag.getValue());
+            }
+            for (Measurement measurement : meter.measure()) {
+                metrics.add(new Metric<>(name + "." + measurement.getStatistic().getTagValueRepresentation(), measurement.getValue()));
+            }
+        }
+        return metrics;
+    }
+}
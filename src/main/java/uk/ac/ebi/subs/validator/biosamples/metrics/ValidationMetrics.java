@@ -0,0 +1,312 @@
+package uk.ac.ebi.subs.validator.biosamples.metrics;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+import uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Micrometer meters of the validator:
+ * <ul>
+ *     <li>{@code biosamples.validator.message.handling}: time from receiving a message to acknowledging it</li>
+ *     <li>{@code biosamples.validator.rule}: time spent in each {@link SampleValidationRule}, tagged by rule</li>
+ *     <li>{@code biosamples.validator.publish}: time spent publishing results, tagged by single or batch mode</li>
+ *     <li>{@code biosamples.validator.results}: published results envelopes, tagged by status and routing key</li>
+ *     <li>{@code biosamples.validator.retries}: failed validation requests, tagged by whether they were sent for a
+ *     delayed retry or rejected after their last attempt</li>
+ *     <li>{@code biosamples.validator.superseded}: validation requests acknowledged without publishing their results,
+ *     because a newer version of their sample had been received, tagged by whether that was found before or after
+ *     validating them</li>
+ *     <li>{@code biosamples.validator.messages.in-flight}: messages received, but not yet acknowledged</li>
+ *     <li>{@code biosamples.validator.consumer.busy}: time the consumer threads spent handling messages</li>
+ *     <li>{@code biosamples.validator.consumer.utilisation}: share of the consumers' time spent handling messages
+ *     over the last complete window of {@code biosamples.validator.metrics.utilisation-window-ms}</li>
+ * </ul>
+ *
+ * Busy time is the time a consumer thread itself spends on a message, see {@link #consumerBusySince}. It leaves out
+ * the time a message waits for its relationship targets or for its results to be confirmed on other threads,
+ * which the handling timer includes.
+ */
+@Component
+public class ValidationMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final Ticker ticker;
+
+    private final Timer handlingTimer;
+    private final Timer singlePublishTimer;
+    private final Timer batchPublishTimer;
+    private final ConcurrentMap<String, Counter> resultCounters = new ConcurrentHashMap<>();
+    private final Counter retriesScheduled;
+    private final Counter retriesExhausted;
+    private final Counter supersededBeforeValidation;
+    private final Counter supersededBeforePublishing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder busyNanos = new LongAdder();
+    private volatile int consumerCount;
+
+    private StartupTimeline startupTimeline;
+
+    private final long utilisationWindowNanos;
+    private long utilisationWindowStartNanos;
+    private long utilisationWindowStartBusyNanos;
+    private double utilisation;
+
+    public ValidationMetrics(MeterRegistry meterRegistry, int consumerCount) {
+        this(meterRegistry, consumerCount, 60000);
+    }
+
+    @Autowired
+    public ValidationMetrics(MeterRegistry meterRegistry,
+                             @Value("${spring.rabbitmq.listener.concurrency:1}") int consumerCount,
+                             @Value("${biosamples.validator.metrics.utilisation-window-ms:60000}") long utilisationWindowMillis) {
+        this(meterRegistry, consumerCount, utilisationWindowMillis, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker the source of the times, in nanoseconds like {@link System#nanoTime()}, e.g. a fake one in tests
+     */
+    public ValidationMetrics(MeterRegistry meterRegistry, int consumerCount, long utilisationWindowMillis, Ticker ticker) {
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.consumerCount = consumerCount;
+        this.utilisationWindowNanos = TimeUnit.MILLISECONDS.toNanos(utilisationWindowMillis);
+        this.utilisationWindowStartNanos = ticker.read();
+
+        this.handlingTimer = Timer.builder("biosamples.validator.message.handling")
+                .description("Time from receiving a validation request to acknowledging it")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.singlePublishTimer = publishTimer("single");
+        this.batchPublishTimer = publishTimer("batch");
+        this.retriesScheduled = retryCounter("scheduled");
+        this.retriesExhausted = retryCounter("exhausted");
+        this.supersededBeforeValidation = supersededCounter("validation");
+        this.supersededBeforePublishing = supersededCounter("publishing");
+
+        Gauge.builder("biosamples.validator.messages.in-flight", inFlight, AtomicInteger::get)
+                .description("Validation requests received, but not yet acknowledged")
+                .register(meterRegistry);
+        FunctionCounter.builder("biosamples.validator.consumer.busy", busyNanos, adder -> adder.sum() / 1e9)
+                .description("Time the consumer threads spent handling validation requests")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("biosamples.validator.consumer.utilisation", this, ValidationMetrics::getUtilisation)
+                .description("Share of the consumers' time spent handling validation requests")
+                .register(meterRegistry);
+    }
+
+    /**
+     * When a {@link StartupTimeline} is available, it is told about the first message received and handled.
+     */
+    @Autowired(required = false)
+    public void setStartupTimeline(StartupTimeline startupTimeline) {
+        this.startupTimeline = startupTimeline;
+    }
+
+    public Timer ruleTimer(SampleValidationRule rule) {
+        return Timer.builder("biosamples.validator.rule")
+                .description("Time spent in a validation rule")
+                .tag("rule", rule.getClass().getSimpleName())
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+
+    public Timer getHandlingTimer() {
+        return handlingTimer;
+    }
+
+    public Timer getSinglePublishTimer() {
+        return singlePublishTimer;
+    }
+
+    public Timer getBatchPublishTimer() {
+        return batchPublishTimer;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the handling started at, to pass to {@link #messageHandled}
+     */
+    public long messageReceived() {
+        inFlight.incrementAndGet();
+        if (startupTimeline != null) {
+            startupTimeline.messageReceived();
+        }
+        return ticker.read();
+    }
+
+    public void messageHandled(long receivedNanos) {
+        long handlingNanos = ticker.read() - receivedNanos;
+        inFlight.decrementAndGet();
+        handlingTimer.record(handlingNanos, TimeUnit.NANOSECONDS);
+        if (startupTimeline != null) {
+            startupTimeline.messageHandled();
+        }
+    }
+
+    /**
+     * Records the time a consumer thread spent on a message, from the given {@link System#nanoTime()} until now.
+     * It is called when the thread is done with the message, even if the message is still waiting on other threads.
+     */
+    public void consumerBusySince(long startedNanos) {
+        busyNanos.add(ticker.read() - startedNanos);
+    }
+
+    /**
+     * @return the total time the consumer threads spent handling messages so far
+     */
+    public long getConsumerBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    public void resultsPublished(SingleValidationResultsEnvelope envelope, String routingKey) {
+        String status = overallStatus(envelope).name();
+        resultCounters.computeIfAbsent(status + '|' + routingKey, key -> Counter.builder("biosamples.validator.results")
+                .description("Published validation results envelopes")
+                .tag("status", status)
+                .tag("routingKey", routingKey)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * @return the number of results envelopes published so far with the status, whatever their routing key
+     */
+    public long resultCount(SingleValidationResultStatus status) {
+        String prefix = status.name() + '|';
+        long count = 0;
+        for (Map.Entry<String, Counter> entry : resultCounters.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                count += (long) entry.getValue().count();
+            }
+        }
+        return count;
+    }
+
+    public long getRetriesScheduled() {
+        return (long) retriesScheduled.count();
+    }
+
+    public long getRetriesExhausted() {
+        return (long) retriesExhausted.count();
+    }
+
+    public void retryScheduled() {
+        retriesScheduled.increment();
+    }
+
+    public void retryExhausted() {
+        retriesExhausted.increment();
+    }
+
+    /**
+     * Counts a request skipped because it was superseded before it was validated.
+     */
+    public void supersededBeforeValidation() {
+        supersededBeforeValidation.increment();
+    }
+
+    /**
+     * Counts a request that was validated, but superseded before its results were published.
+     */
+    public void supersededBeforePublishing() {
+        supersededBeforePublishing.increment();
+    }
+
+    public long getSupersededBeforeValidation() {
+        return (long) supersededBeforeValidation.count();
+    }
+
+    public long getSupersededBeforePublishing() {
+        return (long) supersededBeforePublishing.count();
+    }
+
+    /**
+     * @return the number of threads handling messages, that the utilisation is a share of
+     */
+    public int getConsumerCount() {
+        return consumerCount;
+    }
+
+    public void setConsumerCount(int consumerCount) {
+        this.consumerCount = consumerCount;
+    }
+
+    private Timer publishTimer(String mode) {
+        return Timer.builder("biosamples.validator.publish")
+                .description("Time spent publishing validation results")
+                .tag("mode", mode)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+    }
+
+    private Counter retryCounter(String outcome) {
+        return Counter.builder("biosamples.validator.retries")
+                .description("Failed validation requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter supersededCounter(String skipped) {
+        return Counter.builder("biosamples.validator.superseded")
+                .description("Validation requests skipped because a newer version of their sample was received")
+                .tag("skipped", skipped)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The utilisation of the last complete window, or of the time since the previous window if reads were further
+     * apart. Reading it within a window does not change it. Busy time is recorded when a message is done with,
+     * so a message handled across the end of a window counts in the next one; the value is capped at 1.
+     *
+     * @return the share of the consumers' time spent handling messages
+     */
+    public synchronized double getUtilisation() {
+        long now = ticker.read();
+        long elapsed = now - utilisationWindowStartNanos;
+        if (elapsed >= utilisationWindowNanos && elapsed > 0) {
+            long busy = busyNanos.sum();
+            utilisation = Math.min(1, (double) (busy - utilisationWindowStartBusyNanos) / ((double) elapsed * Math.max(1, consumerCount)));
+            utilisationWindowStartNanos = now;
+            utilisationWindowStartBusyNanos = busy;
+        }
+        return utilisation;
+    }
+
+    /**
+     * @return Error if any result is an error, otherwise Warning if any is a warning, otherwise Pass
+     */
+    public static SingleValidationResultStatus overallStatus(SingleValidationResultsEnvelope envelope) {
+        SingleValidationResultStatus status = SingleValidationResultStatus.Pass;
+        for (SingleValidationResult singleValidationResult : envelope.getSingleValidationResults()) {
+            if (singleValidationResult.getValidationStatus() == SingleValidationResultStatus.Error) {
+                return SingleValidationResultStatus.Error;
+            }
+            if (singleValidationResult.getValidationStatus() == SingleValidationResultStatus.Warning) {
+                status = SingleValidationResultStatus.Warning;
+            }
+        }
+        return status;
+    }
+}
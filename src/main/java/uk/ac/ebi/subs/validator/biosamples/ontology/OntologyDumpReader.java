@@ -0,0 +1,199 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the terms of an ontology dump, in OBO or in OWL (RDF/XML), optionally gzipped, so dumps of any size can
+ * be read in constant memory.
+ *
+ * From OBO, the {@code id}, {@code name} and {@code is_obsolete} tags of {@code [Term]} stanzas are read.
+ * From OWL, the {@code owl:Class}es with an {@code rdf:about} IRI are read, with their first {@code rdfs:label}
+ * and {@code owl:deprecated}.
+ *
+ * The ontology of the dump itself is taken from its header, the {@code ontology} tag of OBO or the {@code owl:Ontology}
+ * IRI of OWL, and reported as an upper case prefix, e.g. {@code UBERON}. Dumps also contain terms imported from other
+ * ontologies, so the prefixes of the term ids do not tell which ontologies a dump covers.
+ */
+public final class OntologyDumpReader {
+
+    private static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+    private static final String OWL = "http://www.w3.org/2002/07/owl#";
+
+    private OntologyDumpReader() {
+    }
+
+    /**
+     * Reads a {@code .obo} or {@code .owl} file, or either of them gzipped.
+     *
+     * @param prefixes told the prefix of the ontology of the dump, if its header names one
+     */
+    public static void read(Path path, Consumer<String> prefixes, Consumer<OntologyTerm> terms) throws IOException {
+        String fileName = path.getFileName().toString();
+        boolean gzipped = fileName.endsWith(".gz");
+        String baseName = gzipped ? fileName.substring(0, fileName.length() - 3) : fileName;
+
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+             InputStream inputStream = gzipped ? new GZIPInputStream(file, 1 << 16) : file) {
+            if (baseName.endsWith(".obo")) {
+                readObo(inputStream, prefixes, terms);
+            } else if (baseName.endsWith(".owl") || baseName.endsWith(".rdf")) {
+                readOwl(inputStream, prefixes, terms);
+            } else {
+                throw new IllegalArgumentException("Unknown ontology format of " + path + ", expected .obo or .owl");
+            }
+        }
+    }
+
+    public static void readObo(InputStream inputStream, Consumer<String> prefixes, Consumer<OntologyTerm> terms) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        boolean inHeader = true;
+        boolean inTerm = false;
+        String id = null;
+        String name = null;
+        boolean obsolete = false;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("[")) {
+                inHeader = false;
+                emitObo(inTerm, id, name, obsolete, terms);
+                inTerm = line.equals("[Term]");
+                id = null;
+                name = null;
+                obsolete = false;
+            } else if (inHeader) {
+                if (line.startsWith("ontology:")) {
+                    // e.g. uberon, or uberon/basic for a subset
+                    String ontology = oboValue(line, 9);
+                    int subset = ontology.indexOf('/');
+                    emitPrefix(subset < 0 ? ontology : ontology.substring(0, subset), prefixes);
+                }
+            } else if (inTerm) {
+                if (line.startsWith("id:")) {
+                    id = oboValue(line, 3);
+                } else if (line.startsWith("name:")) {
+                    name = oboValue(line, 5);
+                } else if (line.startsWith("is_obsolete:")) {
+                    obsolete = "true".equals(oboValue(line, 12));
+                }
+            }
+        }
+        emitObo(inTerm, id, name, obsolete, terms);
+    }
+
+    public static void readOwl(InputStream inputStream, Consumer<String> prefixes, Consumer<OntologyTerm> terms) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+            int depth = 0;
+            int classDepth = -1;
+            String iri = null;
+            String label = null;
+            boolean deprecated = false;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 2 && isElement(reader, OWL, "Ontology")) {
+                        String about = reader.getAttributeValue(RDF, "about");
+                        if (about != null) {
+                            emitPrefix(ontologyOf(about), prefixes);
+                        }
+                    } else if (classDepth < 0 && isElement(reader, OWL, "Class")) {
+                        String about = reader.getAttributeValue(RDF, "about");
+                        if (about != null) {
+                            classDepth = depth;
+                            iri = about;
+                            label = null;
+                            deprecated = false;
+                        }
+                    } else if (classDepth > 0 && depth == classDepth + 1) {
+                        if (label == null && isElement(reader, RDFS, "label")) {
+                            label = reader.getElementText().trim();
+                            depth--;
+                        } else if (isElement(reader, OWL, "deprecated")) {
+                            deprecated = "true".equals(reader.getElementText().trim());
+                            depth--;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == classDepth) {
+                        terms.accept(new OntologyTerm(OntologyTerm.idOf(iri), iri, label, deprecated));
+                        classDepth = -1;
+                    }
+                    depth--;
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read the OWL dump", e);
+        }
+    }
+
+    private static boolean isElement(XMLStreamReader reader, String namespace, String localName) {
+        return localName.equals(reader.getLocalName()) && namespace.equals(reader.getNamespaceURI());
+    }
+
+    private static void emitObo(boolean inTerm, String id, String name, boolean obsolete, Consumer<OntologyTerm> terms) {
+        if (inTerm && id != null) {
+            terms.accept(new OntologyTerm(id, OntologyTerm.iriOf(id), name, obsolete));
+        }
+    }
+
+    private static void emitPrefix(String ontology, Consumer<String> prefixes) {
+        if (!ontology.isEmpty()) {
+            prefixes.accept(ontology.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @return the name of an ontology from its IRI, e.g. {@code uberon} from
+     * {@code http://purl.obolibrary.org/obo/uberon/basic.owl} or {@code efo} from {@code http://www.ebi.ac.uk/efo/efo.owl}
+     */
+    private static String ontologyOf(String iri) {
+        String path = iri.startsWith(OntologyTerm.OBO_PURL)
+                ? iri.substring(OntologyTerm.OBO_PURL.length())
+                : iri.substring(iri.lastIndexOf('/') + 1);
+        int end = path.indexOf('/');
+        if (end < 0) {
+            end = path.indexOf('.');
+        }
+        return end < 0 ? path : path.substring(0, end);
+    }
+
+    /**
+     * @return the value of a tag line, without its trailing modifiers ({@code {...}}) and comment ({@code ! ...})
+     */
+    private static String oboValue(String line, int tagLength) {
+        String value = line.substring(tagLength);
+        int comment = value.indexOf(" !");
+        if (comment >= 0) {
+            value = value.substring(0, comment);
+        }
+        int modifiers = value.indexOf(" {");
+        if (modifiers >= 0) {
+            value = value.substring(0, modifiers);
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,68 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+/**
+ * A term of a {@link TermDictionary}: its compact id (e.g. {@code UBERON:0002107}), its IRI, its label,
+ * and whether it is obsolete.
+ */
+public final class OntologyTerm {
+
+    static final String OBO_PURL = "http://purl.obolibrary.org/obo/";
+
+    private final String id;
+    private final String iri;
+    private final String label;
+    private final boolean obsolete;
+
+    public OntologyTerm(String id, String iri, String label, boolean obsolete) {
+        this.id = id;
+        this.iri = iri;
+        this.label = label;
+        this.obsolete = obsolete;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getIri() {
+        return iri;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isObsolete() {
+        return obsolete;
+    }
+
+    /**
+     * @return the OBO PURL of a compact id, e.g. {@code http://purl.obolibrary.org/obo/UBERON_0002107}
+     */
+    static String iriOf(String id) {
+        return OBO_PURL + id.replace(':', '_');
+    }
+
+    /**
+     * @return the compact id of an IRI, e.g. {@code UBERON:0002107}, from its last path segment or fragment
+     */
+    static String idOf(String iri) {
+        String localName = iri.substring(Math.max(iri.lastIndexOf('/'), iri.lastIndexOf('#')) + 1);
+        int separator = localName.indexOf('_');
+        return separator < 0 ? localName : localName.substring(0, separator) + ':' + localName.substring(separator + 1);
+    }
+
+    /**
+     * @return the ontology prefix of a compact id or an IRI, e.g. {@code UBERON}, or null if it has none
+     */
+    static String prefixOf(String idOrIri) {
+        String localName = idOrIri.substring(Math.max(idOrIri.lastIndexOf('/'), idOrIri.lastIndexOf('#')) + 1);
+        int separator = localName.indexOf(localName.indexOf(':') >= 0 ? ':' : '_');
+        return separator <= 0 ? null : localName.substring(0, separator);
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + label + ")";
+    }
+}
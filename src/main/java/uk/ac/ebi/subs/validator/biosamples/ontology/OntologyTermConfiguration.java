@@ -0,0 +1,31 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the offline ontology term validation.
+ * Only active when {@code biosamples.validator.ontology-terms.enabled} is set to true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.ontology-terms.enabled", havingValue = "true")
+public class OntologyTermConfiguration {
+    private static Logger logger = LoggerFactory.getLogger(OntologyTermConfiguration.class);
+
+    /**
+     * Build the dictionary file with {@code ./gradlew buildTermDictionary}.
+     */
+    @Bean
+    TermDictionary termDictionary(@Value("${biosamples.validator.ontology-terms.dictionary}") String dictionary) throws IOException {
+        TermDictionary termDictionary = TermDictionary.open(Paths.get(dictionary));
+        logger.info("Mapped {} ontology terms of {} from {}", termDictionary.size(), termDictionary.getPrefixes(), dictionary);
+        return termDictionary;
+    }
+}
@@ -0,0 +1,127 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.component.Term;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks the ontology terms of sample attributes against the local {@link TermDictionary}, without any remote lookup.
+ *
+ * A term of an ontology the dictionary covers must be in it, looked up by its IRI or else by the compact id of that
+ * IRI, so a term referenced by another IRI than the one of its dump, e.g. https or identifiers.org, is still found;
+ * terms of other ontologies can not be judged offline and are skipped. The ontologies covered are those named in the headers of the dumps the dictionary was
+ * built from, or those listed in {@code biosamples.validator.ontology-terms.prefixes}. An obsolete term, or an attribute value different from the label of its term,
+ * is a warning. With {@code biosamples.validator.ontology-terms.attributes} set, only the terms of those attributes
+ * are checked.
+ */
+@Component
+@Order(600)
+@ConditionalOnProperty(name = "biosamples.validator.ontology-terms.enabled", havingValue = "true")
+public class OntologyTermRule implements SampleValidationRule {
+
+    public static final String TERM_NOT_FOUND = "Attribute: [%s] term [%s] does not exist in its ontology.";
+    public static final String TERM_OBSOLETE = "Attribute: [%s] term [%s] is obsolete.";
+    public static final String TERM_LABEL_MISMATCH = "Attribute: [%s] value [%s] differs from the label [%s] of term [%s].";
+
+    private final TermDictionary termDictionary;
+    private final Set<String> attributeNames;
+    private final Set<String> prefixes;
+
+    public OntologyTermRule(TermDictionary termDictionary, String[] attributeNames) {
+        this(termDictionary, attributeNames, new String[0]);
+    }
+
+    @Autowired
+    public OntologyTermRule(TermDictionary termDictionary,
+                            @Value("${biosamples.validator.ontology-terms.attributes:}") String[] attributeNames,
+                            @Value("${biosamples.validator.ontology-terms.prefixes:}") String[] prefixes) {
+        this.termDictionary = termDictionary;
+        this.attributeNames = Stream.of(attributeNames)
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        Set<String> configuredPrefixes = Stream.of(prefixes)
+                .map(prefix -> prefix.trim().toUpperCase(Locale.ROOT))
+                .filter(prefix -> !prefix.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.prefixes = configuredPrefixes.isEmpty() ? termDictionary.getPrefixes() : configuredPrefixes;
+    }
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        Map<String, Collection<Attribute>> attributes = context.getSample().getAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        for (Map.Entry<String, Collection<Attribute>> entry : attributes.entrySet()) {
+            if (entry.getValue() == null || (!attributeNames.isEmpty() && !attributeNames.contains(entry.getKey()))) {
+                continue;
+            }
+            for (Attribute attribute : entry.getValue()) {
+                if (attribute != null && attribute.getTerms() != null) {
+                    for (Term term : attribute.getTerms()) {
+                        if (term != null && term.getUrl() != null) {
+                            check(entry.getKey(), attribute.getValue(), term.getUrl(), context);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void check(String attributeName, String value, String termUrl, SampleValidationContext context) {
+        String prefix = OntologyTerm.prefixOf(termUrl);
+        if (prefix == null || !prefixes.contains(prefix.toUpperCase(Locale.ROOT))) {
+            return;
+        }
+
+        OntologyTerm term = termDictionary.lookup(termUrl);
+        if (term == null) {
+            // the dictionary only has the IRIs of its dumps, OBO PURLs for an .obo one, so try the compact id too
+            String id = OntologyTerm.idOf(termUrl);
+            term = id.equals(termUrl) ? null : termDictionary.lookup(id);
+        }
+        if (term == null) {
+            context.addError(TERM_NOT_FOUND, attributeName, termUrl);
+            return;
+        }
+        if (term.isObsolete()) {
+            context.addWarning(TERM_OBSOLETE, attributeName, term.getId());
+        }
+        if (value != null && term.getLabel() != null && !term.getLabel().isEmpty()
+                && !value.trim().equalsIgnoreCase(term.getLabel())) {
+            context.addWarning(TERM_LABEL_MISMATCH, attributeName, value, term.getLabel(), term.getId());
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ATTRIBUTES);
+    }
+
+    /**
+     * Includes the checksum of the dictionary, so results cached before it was rebuilt are not reused.
+     */
+    @Override
+    public String cacheKey() {
+        return getClass().getName() + new TreeSet<>(attributeNames) + new TreeSet<>(prefixes)
+                + Long.toHexString(termDictionary.getChecksum());
+    }
+}
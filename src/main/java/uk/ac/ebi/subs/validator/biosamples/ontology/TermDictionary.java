@@ -0,0 +1,192 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A read-only dictionary of ontology terms, memory-mapped from a file written by {@link TermDictionaryWriter},
+ * so opening it only reads its header, and its terms stay off the heap.
+ *
+ * The file is laid out as:
+ * <pre>
+ * header   magic, version, checksum, the ontology prefixes covered, term count, slot count
+ * slots    an open addressing hash table of (hash, record offset) pairs, keyed by both the id and the IRI of each term
+ * records  the id, IRI and label of each term, as length prefixed UTF-8, and an obsolete flag
+ * </pre>
+ * A lookup hashes the key, probes the slots and compares the key with the id or IRI of the records whose hash matches.
+ * It allocates the UTF-8 bytes of the key, and the term once found; the records probed are compared in place.
+ *
+ * The prefixes covered are upper case, and come from the headers of the dumps, not from the term ids.
+ */
+public final class TermDictionary {
+
+    static final int MAGIC = 0x42535444;
+    // 2: the prefixes covered come from the dump headers, no longer from every term id, and the checksum is stored
+    static final int VERSION = 2;
+    static final int SLOT_BYTES = 8;
+
+    private final ByteBuffer buffer;
+    private final Set<String> prefixes;
+    private final int termCount;
+    private final int slotCount;
+    private final int slotsOffset;
+    private final long checksum;
+
+    private TermDictionary(ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a term dictionary");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported term dictionary version " + buffer.getInt(4));
+        }
+
+        this.checksum = buffer.getLong(8);
+
+        int position = 16;
+        int prefixCount = buffer.getInt(position);
+        position += 4;
+        Set<String> prefixes = new HashSet<>();
+        for (int i = 0; i < prefixCount; i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            prefixes.add(readString(position + 2, length));
+            position += 2 + length;
+        }
+        this.prefixes = Collections.unmodifiableSet(prefixes);
+        this.termCount = buffer.getInt(position);
+        this.slotCount = buffer.getInt(position + 4);
+        this.slotsOffset = position + 8;
+    }
+
+    /**
+     * Maps the dictionary file; it must not be larger than 2 GB.
+     */
+    public static TermDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TermDictionary(buffer);
+        }
+    }
+
+    static TermDictionary of(ByteBuffer buffer) {
+        return new TermDictionary(buffer);
+    }
+
+    /**
+     * @param idOrIri a compact id, e.g. {@code UBERON:0002107}, or an IRI
+     * @return the term, or null if the dictionary does not have it
+     */
+    public OntologyTerm lookup(String idOrIri) {
+        if (idOrIri == null || slotCount == 0) {
+            return null;
+        }
+        byte[] key = idOrIri.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        int mask = slotCount - 1;
+
+        for (int slot = hash & mask, probes = 0; probes < slotCount; slot = (slot + 1) & mask, probes++) {
+            int slotPosition = slotsOffset + slot * SLOT_BYTES;
+            int slotHash = buffer.getInt(slotPosition);
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash == hash) {
+                int record = buffer.getInt(slotPosition + 4);
+                if (matches(record, key)) {
+                    return readTerm(record);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the dictionary was built from the ontology of the id or IRI, so a term missing from it does not exist
+     */
+    public boolean covers(String idOrIri) {
+        String prefix = idOrIri == null ? null : OntologyTerm.prefixOf(idOrIri);
+        return prefix != null && prefixes.contains(prefix.toUpperCase(Locale.ROOT));
+    }
+
+    public Set<String> getPrefixes() {
+        return prefixes;
+    }
+
+    public int size() {
+        return termCount;
+    }
+
+    /**
+     * @return the CRC-32 of the dictionary after its checksum, computed when it was written, which changes whenever
+     * it is rebuilt from a different dump
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    private boolean matches(int record, byte[] key) {
+        int idLength = Short.toUnsignedInt(buffer.getShort(record));
+        if (equalsAt(record + 2, idLength, key)) {
+            return true;
+        }
+        int iriPosition = record + 2 + idLength;
+        int iriLength = Short.toUnsignedInt(buffer.getShort(iriPosition));
+        return equalsAt(iriPosition + 2, iriLength, key);
+    }
+
+    private boolean equalsAt(int position, int length, byte[] key) {
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private OntologyTerm readTerm(int record) {
+        int position = record;
+        int idLength = Short.toUnsignedInt(buffer.getShort(position));
+        String id = readString(position + 2, idLength);
+        position += 2 + idLength;
+        int iriLength = Short.toUnsignedInt(buffer.getShort(position));
+        String iri = readString(position + 2, iriLength);
+        position += 2 + iriLength;
+        int labelLength = Short.toUnsignedInt(buffer.getShort(position));
+        String label = readString(position + 2, labelLength);
+        position += 2 + labelLength;
+        return new OntologyTerm(id, iri, label, buffer.get(position) != 0);
+    }
+
+    private String readString(int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * FNV-1a, never 0, as 0 marks an empty slot.
+     */
+    static int hash(byte[] key) {
+        int hash = 0x811c9dc5;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,56 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Builds a {@link TermDictionary} file from ontology dumps, run by the {@code buildTermDictionary} Gradle task:
+ *
+ * <pre>
+ * TermDictionaryBuilder &lt;dictionary file&gt; &lt;dump&gt;...
+ * </pre>
+ *
+ * Dumps are {@code .obo} or {@code .owl} files, optionally gzipped. A term in more than one dump keeps the definition
+ * of the first one. The dictionary covers the ontologies named in the headers of the dumps; a dump without one
+ * is logged, and its ontology has to be listed in {@code biosamples.validator.ontology-terms.prefixes} instead.
+ */
+public final class TermDictionaryBuilder {
+    private static Logger logger = LoggerFactory.getLogger(TermDictionaryBuilder.class);
+
+    private TermDictionaryBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TermDictionaryBuilder <dictionary file> <.obo or .owl dump>...");
+            System.exit(2);
+        }
+
+        Path output = Paths.get(args[0]);
+        TermDictionaryWriter writer = new TermDictionaryWriter();
+        for (int i = 1; i < args.length; i++) {
+            Path dump = Paths.get(args[i]);
+            int before = writer.size();
+            Set<String> prefixes = new TreeSet<>();
+            OntologyDumpReader.read(dump, prefixes::add, writer::add);
+            prefixes.forEach(writer::cover);
+            if (prefixes.isEmpty()) {
+                logger.warn("{} does not name its ontology, its terms will be looked up but none will be reported missing", dump);
+            }
+            logger.info("Read {} terms of {} from {}", writer.size() - before, prefixes, dump);
+        }
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        writer.write(output);
+        logger.info("Wrote {} terms, covering {}, to {} ({} bytes)", writer.size(), writer.getPrefixes(), output, Files.size(output));
+    }
+}
@@ -0,0 +1,160 @@
+package uk.ac.ebi.subs.validator.biosamples.ontology;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static uk.ac.ebi.subs.validator.biosamples.ontology.TermDictionary.SLOT_BYTES;
+
+/**
+ * Collects ontology terms and writes them as a {@link TermDictionary} file.
+ *
+ * A term added twice keeps its first definition. The slot table is sized for a load factor of at most one half.
+ *
+ * The ontologies the dictionary covers are only those passed to {@link #cover}, usually from the headers of the dumps;
+ * a term of another ontology, e.g. one imported by a dump, can be looked up but its absence proves nothing.
+ */
+public class TermDictionaryWriter {
+
+    private final Map<String, OntologyTerm> terms = new LinkedHashMap<>();
+    private final TreeSet<String> prefixes = new TreeSet<>();
+
+    public void add(OntologyTerm term) {
+        terms.putIfAbsent(term.getId(), term);
+    }
+
+    /**
+     * Marks the ontology of the prefix, e.g. {@code UBERON}, as completely in the dictionary.
+     */
+    public void cover(String prefix) {
+        prefixes.add(prefix.toUpperCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    public Set<String> getPrefixes() {
+        return Collections.unmodifiableSet(prefixes);
+    }
+
+    public void write(Path path) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path), 1 << 20)) {
+            write(outputStream);
+        }
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+
+        List<byte[]> encodedPrefixes = new ArrayList<>(prefixes.size());
+        int headerLength = 4 + 4 + 8 + 4;
+        for (String prefix : prefixes) {
+            byte[] encoded = encode(prefix);
+            encodedPrefixes.add(encoded);
+            headerLength += 2 + encoded.length;
+        }
+        headerLength += 4 + 4;
+
+        int slotCount = terms.isEmpty() ? 0 : Integer.highestOneBit(terms.size() * 4 - 1) << 1;
+        long recordsOffset = headerLength + (long) slotCount * SLOT_BYTES;
+
+        int[] slotHashes = new int[slotCount];
+        int[] slotRecords = new int[slotCount];
+        List<byte[]> records = new ArrayList<>(terms.size());
+        long recordOffset = recordsOffset;
+        for (OntologyTerm term : terms.values()) {
+            byte[] id = encode(term.getId());
+            byte[] iri = encode(term.getIri());
+            byte[] label = encode(term.getLabel() == null ? "" : term.getLabel());
+            byte[] record = new byte[2 + id.length + 2 + iri.length + 2 + label.length + 1];
+            int position = put(record, 0, id);
+            position = put(record, position, iri);
+            position = put(record, position, label);
+            record[position] = (byte) (term.isObsolete() ? 1 : 0);
+            records.add(record);
+
+            // records are addressed by int offsets, and the whole file must fit in a single mapped buffer
+            if (recordOffset + record.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The term dictionary would be larger than 2 GB");
+            }
+            insert(slotHashes, slotRecords, TermDictionary.hash(id), (int) recordOffset);
+            if (!term.getIri().equals(term.getId())) {
+                insert(slotHashes, slotRecords, TermDictionary.hash(iri), (int) recordOffset);
+            }
+            recordOffset += record.length;
+        }
+
+        CRC32 crc = new CRC32();
+        writeAfterChecksum(new DataOutputStream(new CheckedOutputStream(OutputStream.nullOutputStream(), crc)),
+                encodedPrefixes, slotHashes, slotRecords, records);
+
+        out.writeInt(TermDictionary.MAGIC);
+        out.writeInt(TermDictionary.VERSION);
+        out.writeLong(crc.getValue());
+        writeAfterChecksum(out, encodedPrefixes, slotHashes, slotRecords, records);
+        out.flush();
+    }
+
+    /**
+     * Writes everything after the checksum; run once to compute the checksum, so opening the dictionary need not read
+     * all of it, and once to write it.
+     */
+    private void writeAfterChecksum(DataOutputStream out, List<byte[]> encodedPrefixes, int[] slotHashes, int[] slotRecords,
+                                    List<byte[]> records) throws IOException {
+        out.writeInt(encodedPrefixes.size());
+        for (byte[] prefix : encodedPrefixes) {
+            out.writeShort(prefix.length);
+            out.write(prefix);
+        }
+        out.writeInt(terms.size());
+        out.writeInt(slotHashes.length);
+        for (int slot = 0; slot < slotHashes.length; slot++) {
+            out.writeInt(slotHashes[slot]);
+            out.writeInt(slotRecords[slot]);
+        }
+        for (byte[] record : records) {
+            out.write(record);
+        }
+        out.flush();
+    }
+
+    private static void insert(int[] slotHashes, int[] slotRecords, int hash, int record) {
+        int mask = slotHashes.length - 1;
+        int slot = hash & mask;
+        while (slotHashes[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slotHashes[slot] = hash;
+        slotRecords[slot] = record;
+    }
+
+    private static int put(byte[] record, int position, byte[] value) {
+        record[position] = (byte) (value.length >>> 8);
+        record[position + 1] = (byte) value.length;
+        System.arraycopy(value, 0, record, position + 2, value.length);
+        return position + 2 + value.length;
+    }
+
+    private static byte[] encode(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > 0xffff) {
+            throw new IllegalArgumentException("Value longer than 65535 bytes: " + value.substring(0, 64) + "...");
+        }
+        return encoded;
+    }
+}
@@ -0,0 +1,79 @@
+package uk.ac.ebi.subs.validator.biosamples.relationships;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RelationshipTargetLookup} against the BioSamples bulk fetch endpoint, e.g.
+ * {@code https://www.ebi.ac.uk/biosamples/samples/bulk-fetch?accessions=SAMEA1,SAMEA2}.
+ * The endpoint answers with a JSON object keyed by the accessions it found; the values are not read.
+ *
+ * Requests are sent with the non-blocking {@link HttpClient}.
+ */
+public class BiosamplesBulkFetchLookup implements RelationshipTargetLookup {
+
+    private final HttpClient httpClient;
+    private final String bulkFetchUrl;
+    private final Duration requestTimeout;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public BiosamplesBulkFetchLookup(String bulkFetchUrl, Duration connectTimeout, Duration requestTimeout) {
+        this.bulkFetchUrl = bulkFetchUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> findExisting(Set<String> accessions) {
+        URI uri = URI.create(bulkFetchUrl + "?accessions=" + URLEncoder.encode(String.join(",", accessions), StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("BioSamples bulk fetch answered with HTTP status " + response.statusCode());
+                    }
+                    return readAccessions(response.body());
+                });
+    }
+
+    private Set<String> readAccessions(byte[] body) {
+        Set<String> found = new HashSet<>();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("BioSamples bulk fetch did not answer with a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String accession = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.VALUE_NULL) {
+                    found.add(accession);
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,44 @@
+package uk.ac.ebi.subs.validator.biosamples.relationships;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the resolution of relationship targets against BioSamples.
+ * Only active when {@code biosamples.validator.relationship-targets.enabled} is set to true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.relationship-targets.enabled", havingValue = "true")
+public class RelationshipTargetConfiguration {
+
+    /**
+     * Point {@code biosamples.validator.relationship-targets.bulk-fetch-url} at a local stub server to test
+     * without BioSamples, or declare another {@link RelationshipTargetLookup} bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    RelationshipTargetLookup relationshipTargetLookup(
+            @Value("${biosamples.validator.relationship-targets.bulk-fetch-url}") String bulkFetchUrl,
+            @Value("${biosamples.validator.relationship-targets.connect-timeout-ms:2000}") long connectTimeoutMillis,
+            @Value("${biosamples.validator.relationship-targets.request-timeout-ms:10000}") long requestTimeoutMillis) {
+        return new BiosamplesBulkFetchLookup(bulkFetchUrl,
+                Duration.ofMillis(connectTimeoutMillis), Duration.ofMillis(requestTimeoutMillis));
+    }
+
+    @Bean
+    RelationshipTargetResolver relationshipTargetResolver(
+            RelationshipTargetLookup relationshipTargetLookup,
+            @Value("${biosamples.validator.relationship-targets.batch-size:100}") int batchSize,
+            @Value("${biosamples.validator.relationship-targets.window-ms:50}") long batchWindowMillis,
+            @Value("${biosamples.validator.relationship-targets.existing-ttl-minutes:1440}") long existingTtlMinutes,
+            @Value("${biosamples.validator.relationship-targets.missing-ttl-seconds:300}") long missingTtlSeconds,
+            @Value("${biosamples.validator.relationship-targets.callback-threads:2}") int callbackThreads) {
+        return new RelationshipTargetResolver(relationshipTargetLookup, batchSize, batchWindowMillis,
+                existingTtlMinutes, missingTtlSeconds, callbackThreads);
+    }
+}
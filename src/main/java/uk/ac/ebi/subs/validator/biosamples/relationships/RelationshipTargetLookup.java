@@ -0,0 +1,19 @@
+package uk.ac.ebi.subs.validator.biosamples.relationships;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bulk lookup of sample accessions in BioSamples.
+ */
+public interface RelationshipTargetLookup {
+
+    /**
+     * Looks up all the given accessions with as few requests as possible, without blocking the calling thread.
+     *
+     * @param accessions the accessions to look up
+     * @return a future of the subset of the given accessions that exist in BioSamples,
+     * completed exceptionally if the lookup itself failed
+     */
+    CompletableFuture<Set<String>> findExisting(Set<String> accessions);
+}
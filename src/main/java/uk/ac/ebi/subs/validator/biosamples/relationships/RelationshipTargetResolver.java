@@ -0,0 +1,191 @@
+package uk.ac.ebi.subs.validator.biosamples.relationships;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the target accessions of sample relationships against BioSamples.
+ *
+ * Accessions requested by all the samples in flight are grouped into bulk lookups: a lookup is sent when
+ * {@code maxBatchSize} accessions are waiting, or when the batch window has elapsed since the first of them arrived.
+ * An accession already waiting for, or being looked up, is not looked up twice.
+ *
+ * Found and missing accessions are remembered for their own time to live, so known targets are resolved without
+ * any request. A failed lookup resolves its accessions to {@link TargetResolution#UNKNOWN} and is not cached.
+ *
+ * Nothing here blocks: the returned futures are completed on a dedicated callback executor.
+ */
+public class RelationshipTargetResolver implements DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(RelationshipTargetResolver.class);
+
+    private final RelationshipTargetLookup lookup;
+    private final int maxBatchSize;
+    private final long batchWindowMillis;
+
+    private final Cache<String, Boolean> existingTargets;
+    private final Cache<String, Boolean> missingTargets;
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "relationship-target-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService callbackExecutor;
+
+    private final Object lock = new Object();
+    private final Map<String, CompletableFuture<TargetResolution>> inFlight = new HashMap<>();
+    private List<String> pendingAccessions = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public RelationshipTargetResolver(RelationshipTargetLookup lookup, int maxBatchSize, long batchWindowMillis,
+                                      long existingTtlMinutes, long missingTtlSeconds, int callbackThreads) {
+        this.lookup = lookup;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        this.existingTargets = Caffeine.newBuilder()
+                .maximumSize(1_000_000)
+                .expireAfterWrite(existingTtlMinutes, TimeUnit.MINUTES)
+                .build();
+        this.missingTargets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(missingTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.callbackExecutor = Executors.newFixedThreadPool(callbackThreads, runnable -> {
+            Thread thread = new Thread(runnable, "relationship-target-callback");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param accessions the target accessions of a sample
+     * @return a future of the resolution of each of the given accessions, in the order they are given,
+     * never completed exceptionally
+     */
+    public CompletableFuture<Map<String, TargetResolution>> resolve(Collection<String> accessions) {
+        Map<String, CompletableFuture<TargetResolution>> resolutions = new LinkedHashMap<>();
+        for (String accession : accessions) {
+            if (!resolutions.containsKey(accession)) {
+                resolutions.put(accession, resolve(accession));
+            }
+        }
+
+        return CompletableFuture.allOf(resolutions.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, TargetResolution> resolved = new LinkedHashMap<>();
+                    resolutions.forEach((accession, resolution) -> resolved.put(accession, resolution.join()));
+                    return resolved;
+                });
+    }
+
+    private CompletableFuture<TargetResolution> resolve(String accession) {
+        if (existingTargets.getIfPresent(accession) != null) {
+            return CompletableFuture.completedFuture(TargetResolution.EXISTS);
+        }
+        if (missingTargets.getIfPresent(accession) != null) {
+            return CompletableFuture.completedFuture(TargetResolution.MISSING);
+        }
+
+        CompletableFuture<TargetResolution> resolution;
+        List<String> fullBatch = null;
+        synchronized (lock) {
+            resolution = inFlight.get(accession);
+            if (resolution != null) {
+                return resolution;
+            }
+            resolution = new CompletableFuture<>();
+            inFlight.put(accession, resolution);
+            pendingAccessions.add(accession);
+
+            if (pendingAccessions.size() >= maxBatchSize) {
+                fullBatch = drainPendingAccessions();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = flushScheduler.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            lookUp(fullBatch);
+        }
+        return resolution;
+    }
+
+    private void flush() {
+        List<String> batch;
+        synchronized (lock) {
+            batch = drainPendingAccessions();
+        }
+        if (!batch.isEmpty()) {
+            lookUp(batch);
+        }
+    }
+
+    private List<String> drainPendingAccessions() {
+        List<String> batch = pendingAccessions;
+        pendingAccessions = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void lookUp(List<String> batch) {
+        CompletableFuture<Set<String>> lookupResult;
+        try {
+            lookupResult = lookup.findExisting(new HashSet<>(batch));
+        } catch (RuntimeException e) {
+            lookupResult = CompletableFuture.failedFuture(e);
+        }
+
+        lookupResult.whenCompleteAsync((found, throwable) -> {
+            if (throwable != null) {
+                logger.warn("Could not look up {} relationship targets in BioSamples", batch.size(), throwable);
+            }
+            for (String accession : batch) {
+                TargetResolution resolution;
+                if (throwable != null) {
+                    resolution = TargetResolution.UNKNOWN;
+                } else if (found.contains(accession)) {
+                    resolution = TargetResolution.EXISTS;
+                    existingTargets.put(accession, Boolean.TRUE);
+                } else {
+                    resolution = TargetResolution.MISSING;
+                    missingTargets.put(accession, Boolean.TRUE);
+                }
+
+                CompletableFuture<TargetResolution> future;
+                synchronized (lock) {
+                    future = inFlight.remove(accession);
+                }
+                if (future != null) {
+                    future.complete(resolution);
+                }
+            }
+        }, callbackExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        flushScheduler.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+}
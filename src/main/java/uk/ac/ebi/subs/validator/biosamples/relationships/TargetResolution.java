@@ -0,0 +1,10 @@
+package uk.ac.ebi.subs.validator.biosamples.relationships;
+
+/**
+ * The outcome of looking up the target accession of a sample relationship.
+ */
+public enum TargetResolution {
+    EXISTS,
+    MISSING,
+    UNKNOWN
+}
@@ -0,0 +1,201 @@
+package uk.ac.ebi.subs.validator.biosamples.results;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import uk.ac.ebi.subs.validator.biosamples.rules.CodedValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+import uk.ac.ebi.subs.validator.data.structures.ValidationAuthor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes and reads {@link SingleValidationResultsEnvelope}s in a compact document, in Smile or CBOR:
+ * <pre>
+ * {"uuid": ..., "version": ..., "author": ...,
+ *  "results": [{"status": ..., "entity": ..., "code": ..., "args": [...]}, {"status": ..., "message": ...}]}
+ * </pre>
+ * A result whose message comes from a template of the {@link MessageCatalog} carries the code of the template and its
+ * arguments, any other result carries its message. The entity of a result is left out when it is the same as
+ * the entity of the result before, and its author when it is the author of the envelope.
+ */
+public class CompactResultsCodec {
+
+    private final JsonFactory jsonFactory;
+
+    public CompactResultsCodec(ResultsEncoding encoding) {
+        switch (encoding) {
+            case SMILE:
+                this.jsonFactory = new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+                break;
+            case CBOR:
+                this.jsonFactory = new CBORFactory();
+                break;
+            default:
+                throw new IllegalArgumentException("No compact document in " + encoding);
+        }
+    }
+
+    public byte[] encode(SingleValidationResultsEnvelope envelope) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeStringField("uuid", envelope.getValidationResultUUID());
+            generator.writeNumberField("version", envelope.getValidationResultVersion());
+            generator.writeStringField("author", envelope.getValidationAuthor().name());
+
+            generator.writeArrayFieldStart("results");
+            String previousEntity = null;
+            for (SingleValidationResult result : envelope.getSingleValidationResults()) {
+                generator.writeStartObject();
+                generator.writeStringField("status", result.getValidationStatus().name());
+                if (result.getEntityUuid() != null && !result.getEntityUuid().equals(previousEntity)) {
+                    generator.writeStringField("entity", result.getEntityUuid());
+                    previousEntity = result.getEntityUuid();
+                }
+                if (result.getValidationAuthor() != envelope.getValidationAuthor()) {
+                    generator.writeStringField("author", result.getValidationAuthor().name());
+                }
+                writeMessage(generator, result);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+        return output.toByteArray();
+    }
+
+    private static void writeMessage(JsonGenerator generator, SingleValidationResult result) throws IOException {
+        if (result instanceof CodedValidationResult) {
+            CodedValidationResult codedResult = (CodedValidationResult) result;
+            int code = MessageCatalog.codeOf(codedResult.getMessageTemplate());
+            if (code > 0) {
+                generator.writeNumberField("code", code);
+                if (codedResult.getMessageArguments().length > 0) {
+                    generator.writeArrayFieldStart("args");
+                    for (Object argument : codedResult.getMessageArguments()) {
+                        generator.writeString(String.valueOf(argument));
+                    }
+                    generator.writeEndArray();
+                }
+                return;
+            }
+        }
+        if (result.getMessage() != null) {
+            generator.writeStringField("message", result.getMessage());
+        }
+    }
+
+    public SingleValidationResultsEnvelope decode(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+
+            String uuid = null;
+            int version = 0;
+            ValidationAuthor author = null;
+            List<PartialResult> partialResults = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (fieldName) {
+                    case "uuid":
+                        uuid = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                        break;
+                    case "version":
+                        version = parser.getIntValue();
+                        break;
+                    case "author":
+                        author = ValidationAuthor.valueOf(parser.getText());
+                        break;
+                    case "results":
+                        expect(value, JsonToken.START_ARRAY);
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            partialResults.add(readResult(parser));
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            List<SingleValidationResult> results = new ArrayList<>(partialResults.size());
+            String entity = null;
+            for (PartialResult partialResult : partialResults) {
+                if (partialResult.entity != null) {
+                    entity = partialResult.entity;
+                }
+                SingleValidationResult result = new SingleValidationResult(
+                        partialResult.author != null ? partialResult.author : author, entity);
+                result.setValidationStatus(partialResult.status);
+                result.setMessage(partialResult.code > 0
+                        ? MessageCatalog.format(partialResult.code, partialResult.args)
+                        : partialResult.message);
+                results.add(result);
+            }
+            return new SingleValidationResultsEnvelope(results, version, uuid, author);
+        }
+    }
+
+    private static PartialResult readResult(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_OBJECT);
+
+        PartialResult result = new PartialResult();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "status":
+                    result.status = SingleValidationResultStatus.valueOf(parser.getText());
+                    break;
+                case "entity":
+                    result.entity = parser.getText();
+                    break;
+                case "author":
+                    result.author = ValidationAuthor.valueOf(parser.getText());
+                    break;
+                case "code":
+                    result.code = parser.getIntValue();
+                    break;
+                case "args":
+                    List<String> args = new ArrayList<>(2);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        args.add(parser.getText());
+                    }
+                    result.args = args.toArray();
+                    break;
+                case "message":
+                    result.message = parser.getText();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static class PartialResult {
+        SingleValidationResultStatus status;
+        String entity;
+        ValidationAuthor author;
+        int code;
+        Object[] args = new Object[0];
+        String message;
+    }
+}
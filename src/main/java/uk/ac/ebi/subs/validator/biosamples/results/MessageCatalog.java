@@ -0,0 +1,73 @@
+package uk.ac.ebi.subs.validator.biosamples.results;
+
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistRule;
+import uk.ac.ebi.subs.validator.biosamples.graph.SubmissionRelationshipGraphRule;
+import uk.ac.ebi.subs.validator.biosamples.ontology.OntologyTermRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleAliasRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleRelationshipsRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleReleaseDateRule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The message templates of the validator, each with a numeric code, for the compact results encodings.
+ *
+ * The code of a template is its position in {@link #TEMPLATES}, starting from 1. Decoders of earlier versions
+ * must keep understanding the codes, so new templates are only ever appended, and the text of an existing
+ * template may only change in ways its readers can live with.
+ */
+public final class MessageCatalog {
+
+    private static final String[] TEMPLATES = {
+            SampleAliasRule.NAME_MISSING,
+            SampleReleaseDateRule.MISSING_DATE_VALUE,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_NULL,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_NATURE_MISSING,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_NATURE_UNKNOWN,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_TARGET_MISSING,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_TARGET_NOT_FOUND,
+            SampleRelationshipsRule.SAMPLE_RELATIONSHIP_TARGET_NOT_VERIFIED,
+            SubmissionRelationshipGraphRule.RELATIONSHIP_CYCLE,
+            SubmissionRelationshipGraphRule.RELATIONSHIP_TARGET_NOT_IN_SUBMISSION,
+            ChecklistRule.CHECKLIST_UNKNOWN,
+            ChecklistRule.REQUIRED_ATTRIBUTE_MISSING,
+            ChecklistRule.ATTRIBUTE_VALUE_MISMATCH,
+            ChecklistRule.ATTRIBUTE_DATE_INVALID,
+            ChecklistRule.ATTRIBUTE_UNITS_MISSING,
+            ChecklistRule.ATTRIBUTE_UNITS_INVALID,
+            OntologyTermRule.TERM_NOT_FOUND,
+            OntologyTermRule.TERM_OBSOLETE,
+            OntologyTermRule.TERM_LABEL_MISMATCH
+    };
+
+    private static final Map<String, Integer> CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < TEMPLATES.length; i++) {
+            CODES.put(TEMPLATES[i], i + 1);
+        }
+    }
+
+    private MessageCatalog() {
+    }
+
+    /**
+     * @return the code of the template, or 0 if it is not in the catalog
+     */
+    public static int codeOf(String template) {
+        Integer code = template == null ? null : CODES.get(template);
+        return code == null ? 0 : code;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no template with the code
+     */
+    public static String format(int code, Object[] arguments) {
+        if (code < 1 || code > TEMPLATES.length) {
+            throw new IllegalArgumentException("Unknown message code " + code);
+        }
+        String template = TEMPLATES[code - 1];
+        return arguments.length == 0 ? template : String.format(template, arguments);
+    }
+}
@@ -0,0 +1,36 @@
+package uk.ac.ebi.subs.validator.biosamples.results;
+
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * The encodings the validation results can be published in, told apart by the content type of the message.
+ * JSON is the plain JSON of the results envelope; the binary encodings carry a {@link CompactResultsCodec} document.
+ */
+public enum ResultsEncoding {
+
+    JSON(MessageProperties.CONTENT_TYPE_JSON),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor");
+
+    private final String contentType;
+
+    ResultsEncoding(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the encoding of the content type, JSON for anything that is not a binary encoding
+     */
+    public static ResultsEncoding forContentType(String contentType) {
+        for (ResultsEncoding encoding : values()) {
+            if (encoding.contentType.equals(contentType)) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,73 @@
+package uk.ac.ebi.subs.validator.biosamples.results;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes {@link SingleValidationResultsEnvelope}s in the configured {@link ResultsEncoding}, and reads them back
+ * in whichever encoding the content type of the message says.
+ * JSON is handled by the given JSON message converter, so JSON messages are exactly what they used to be.
+ */
+public class ValidationResultsMessageConverter implements MessageConverter {
+
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private final ResultsEncoding encoding;
+
+    private final MessageConverter jsonMessageConverter;
+
+    private final Map<ResultsEncoding, CompactResultsCodec> codecs = new EnumMap<>(ResultsEncoding.class);
+
+    public ValidationResultsMessageConverter(ResultsEncoding encoding, MessageConverter jsonMessageConverter) {
+        this.encoding = encoding;
+        this.jsonMessageConverter = jsonMessageConverter;
+        codecs.put(ResultsEncoding.SMILE, new CompactResultsCodec(ResultsEncoding.SMILE));
+        codecs.put(ResultsEncoding.CBOR, new CompactResultsCodec(ResultsEncoding.CBOR));
+    }
+
+    public ResultsEncoding getEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (encoding == ResultsEncoding.JSON) {
+            return jsonMessageConverter.toMessage(object, messageProperties);
+        }
+        if (!(object instanceof SingleValidationResultsEnvelope)) {
+            throw new MessageConversionException("Can only encode a SingleValidationResultsEnvelope in " + encoding);
+        }
+
+        byte[] body;
+        try {
+            body = codecs.get(encoding).encode((SingleValidationResultsEnvelope) object);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not encode the validation results in " + encoding, e);
+        }
+        messageProperties.setContentType(encoding.getContentType());
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(TYPE_ID_HEADER, SingleValidationResultsEnvelope.class.getName());
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        ResultsEncoding messageEncoding = ResultsEncoding.forContentType(message.getMessageProperties().getContentType());
+        if (messageEncoding == ResultsEncoding.JSON) {
+            return jsonMessageConverter.fromMessage(message);
+        }
+
+        try {
+            return codecs.get(messageEncoding).decode(message.getBody());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MessageConversionException("Could not decode the validation results from " + messageEncoding, e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.structures.ValidationAuthor;
+
+/**
+ * A {@link SingleValidationResult} that remembers the template and the arguments its message was formatted from,
+ * so a compact encoding can send a short code of the template instead of the message text.
+ * Neither is part of its JSON representation.
+ */
+public class CodedValidationResult extends SingleValidationResult {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final String messageTemplate;
+
+    private final Object[] messageArguments;
+
+    public CodedValidationResult(ValidationAuthor validationAuthor, String entityUuid,
+                                 String messageTemplate, Object... messageArguments) {
+        super(validationAuthor, entityUuid);
+        this.messageTemplate = messageTemplate;
+        this.messageArguments = messageArguments == null ? NO_ARGUMENTS : messageArguments;
+        setMessage(this.messageArguments.length == 0 ? messageTemplate : String.format(messageTemplate, this.messageArguments));
+    }
+
+    @JsonIgnore
+    public String getMessageTemplate() {
+        return messageTemplate;
+    }
+
+    @JsonIgnore
+    public Object[] getMessageArguments() {
+        return messageArguments;
+    }
+}
@@ -0,0 +1,32 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A name in the biosamples sample object is the same as the alias in the USI sample object,
+ * so a sample must have an alias.
+ */
+@Component
+@Order(100)
+public class SampleAliasRule implements SampleValidationRule {
+
+    public static final String NAME_MISSING = "A sample must have an alias.";
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        String alias = context.getSample().getAlias();
+
+        if (alias == null || alias.isEmpty()) {
+            context.addError(NAME_MISSING);
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ALIAS);
+    }
+}
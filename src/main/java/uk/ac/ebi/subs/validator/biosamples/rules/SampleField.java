@@ -0,0 +1,12 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+/**
+ * The fields of a sample a {@link SampleValidationRule} may read.
+ * The id of the sample is always available.
+ */
+public enum SampleField {
+    ALIAS,
+    RELEASE_DATE,
+    SAMPLE_RELATIONSHIPS,
+    ATTRIBUTES
+}
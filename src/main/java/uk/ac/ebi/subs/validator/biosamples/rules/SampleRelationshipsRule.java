@@ -0,0 +1,97 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.data.component.SampleRelationship;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * If present, sample relationships must have a nature and target.
+ * A nature outside of the configured vocabulary ({@code biosamples.validator.relationship-natures}) is a warning.
+ */
+@Component
+@Order(300)
+public class SampleRelationshipsRule implements SampleValidationRule {
+
+    public static final String SAMPLE_RELATIONSHIP_NULL = "When present, a SampleRelationship must not be null.";
+    public static final String SAMPLE_RELATIONSHIP_NATURE_MISSING = "A SampleRelationship must have a RelationshipNature.";
+    public static final String SAMPLE_RELATIONSHIP_NATURE_UNKNOWN = "SampleRelationship nature: [%s] unknown, please verify if you wish to proceed.";
+    public static final String SAMPLE_RELATIONSHIP_TARGET_MISSING = "A SampleRelationship must have a target sample accession or alias.";
+    public static final String SAMPLE_RELATIONSHIP_TARGET_NOT_FOUND = "SampleRelationship target: [%s] does not exist in BioSamples.";
+    public static final String SAMPLE_RELATIONSHIP_TARGET_NOT_VERIFIED = "SampleRelationship target: [%s] could not be verified in BioSamples, please validate again later.";
+
+    private final Set<String> relationshipNatureValues;
+
+    @Autowired
+    public SampleRelationshipsRule(@Value("${biosamples.validator.relationship-natures}") String[] relationshipNatureValues) {
+        this(List.of(relationshipNatureValues));
+    }
+
+    public SampleRelationshipsRule(Collection<String> relationshipNatureValues) {
+        Set<String> natures = new HashSet<>();
+        for (String nature : relationshipNatureValues) {
+            natures.add(nature.trim());
+        }
+        this.relationshipNatureValues = Set.copyOf(natures);
+    }
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        List<SampleRelationship> sampleRelationships = context.getSample().getSampleRelationships();
+        if (sampleRelationships == null) {
+            return;
+        }
+
+        for (SampleRelationship sampleRelationship : sampleRelationships) {
+            validateSampleRelationship(sampleRelationship, context);
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.SAMPLE_RELATIONSHIPS);
+    }
+
+    @Override
+    public String cacheKey() {
+        return getClass().getName() + new TreeSet<>(relationshipNatureValues);
+    }
+
+    private void validateSampleRelationship(SampleRelationship sampleRelationship, SampleValidationContext context) {
+        if (sampleRelationship == null) {
+            context.addError(SAMPLE_RELATIONSHIP_NULL);
+            return;
+        }
+
+        String nature = sampleRelationship.getRelationshipNature();
+
+        // Check for nature
+        if (nature == null || nature.isEmpty()) {
+            context.addError(SAMPLE_RELATIONSHIP_NATURE_MISSING);
+            return;
+        }
+
+        // Check for target
+        if (isBlank(sampleRelationship.getAccession()) && isBlank(sampleRelationship.getAlias())) {
+            context.addError(SAMPLE_RELATIONSHIP_TARGET_MISSING);
+            return;
+        }
+
+        // Check known nature
+        if (!relationshipNatureValues.contains(nature)) {
+            context.addWarning(SAMPLE_RELATIONSHIP_NATURE_UNKNOWN, nature);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
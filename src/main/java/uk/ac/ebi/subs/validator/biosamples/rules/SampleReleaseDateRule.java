@@ -0,0 +1,29 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Release date must always be present.
+ */
+@Component
+@Order(200)
+public class SampleReleaseDateRule implements SampleValidationRule {
+
+    public static final String MISSING_DATE_VALUE = "A sample must have a release date.";
+
+    @Override
+    public void validate(SampleValidationContext context) {
+        if (context.getSample().getReleaseDate() == null) {
+            context.addError(MISSING_DATE_VALUE);
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.RELEASE_DATE);
+    }
+}
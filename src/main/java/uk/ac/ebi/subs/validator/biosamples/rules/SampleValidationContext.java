@@ -0,0 +1,73 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+import uk.ac.ebi.subs.validator.data.structures.ValidationAuthor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the sample under validation, with the id of its submission when known, and collects the failures reported by the {@link SampleValidationRule}s.
+ * The list of failures is only created when the first failure is reported.
+ *
+ * Failures are reported as a message template and its arguments, see {@link CodedValidationResult}.
+ */
+public class SampleValidationContext {
+
+    private final Sample sample;
+
+    private final String submissionId;
+
+    private List<SingleValidationResult> failures;
+
+    public SampleValidationContext(Sample sample) {
+        this(sample, null);
+    }
+
+    public SampleValidationContext(Sample sample, String submissionId) {
+        this.sample = sample;
+        this.submissionId = submissionId;
+    }
+
+    public Sample getSample() {
+        return sample;
+    }
+
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    /**
+     * @param messageTemplate one of the message constants of the rules, a {@link String#format} template
+     * @param messageArguments the arguments of the template, if any
+     */
+    public void addError(String messageTemplate, Object... messageArguments) {
+        addFailure(SingleValidationResultStatus.Error, messageTemplate, messageArguments);
+    }
+
+    public void addWarning(String messageTemplate, Object... messageArguments) {
+        addFailure(SingleValidationResultStatus.Warning, messageTemplate, messageArguments);
+    }
+
+    private void addFailure(SingleValidationResultStatus status, String messageTemplate, Object[] messageArguments) {
+        SingleValidationResult singleValidationResult = new CodedValidationResult(
+                ValidationAuthor.Biosamples, sample.getId(), messageTemplate, messageArguments);
+        singleValidationResult.setValidationStatus(status);
+
+        if (failures == null) {
+            failures = new ArrayList<>(4);
+        }
+        failures.add(singleValidationResult);
+    }
+
+    public boolean hasFailures() {
+        return failures != null;
+    }
+
+    public List<SingleValidationResult> getFailures() {
+        return failures == null ? Collections.emptyList() : failures;
+    }
+}
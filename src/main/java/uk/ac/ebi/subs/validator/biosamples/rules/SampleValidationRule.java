@@ -0,0 +1,42 @@
+package uk.ac.ebi.subs.validator.biosamples.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A single check of the {@link uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator} pipeline.
+ *
+ * Rules are Spring beans, picked up by the validator at startup and run in {@link org.springframework.core.annotation.Order}.
+ * A rule must only report to the {@link SampleValidationContext} when the sample fails it,
+ * passing checks should not allocate anything.
+ */
+public interface SampleValidationRule {
+
+    void validate(SampleValidationContext context);
+
+    /**
+     * A rule is cacheable when its outcome only depends on the fields of the sample hashed by
+     * {@link uk.ac.ebi.subs.validator.biosamples.cache.SampleFingerprint}.
+     * Rules depending on anything else, e.g. the other samples of the submission, are run on every validation.
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * The fields of the sample the rule reads. Fields no active rule reads may be left out
+     * when incoming samples are deserialized.
+     */
+    default Set<SampleField> getRequiredFields() {
+        return EnumSet.allOf(SampleField.class);
+    }
+
+    /**
+     * Identifies the rule together with the configuration and the data its outcome depends on, besides the sample.
+     * Cached results are only reused by rules with the same keys, see
+     * {@link uk.ac.ebi.subs.validator.biosamples.cache.ValidationResultCache}.
+     */
+    default String cacheKey() {
+        return getClass().getName();
+    }
+}
@@ -0,0 +1,113 @@
+package uk.ac.ebi.subs.validator.biosamples.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A queue made of one sub-queue per key, polled by deficit round robin: the sub-queues take turns, each turn adds
+ * the quantum to the deficit of the sub-queue, and it is polled for as long as the cost of its head fits in its
+ * deficit. A key with many cheap items and a key with a few expensive ones thus get the same share of work,
+ * and a key that is alone gets all of it.
+ *
+ * Not thread safe, the {@link FairScheduler} guards it with its lock.
+ */
+class DeficitRoundRobinQueue<T> {
+
+    private final long quantum;
+
+    private final Map<String, SubQueue<T>> subQueues = new HashMap<>();
+    private final ArrayDeque<SubQueue<T>> rounds = new ArrayDeque<>();
+
+    private volatile int size;
+    private volatile int keys;
+
+    DeficitRoundRobinQueue(long quantum) {
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("The quantum must be positive, but was " + quantum);
+        }
+        this.quantum = quantum;
+    }
+
+    void add(String key, T item, long cost) {
+        SubQueue<T> subQueue = subQueues.get(key);
+        if (subQueue == null) {
+            subQueue = new SubQueue<>(key);
+            subQueues.put(key, subQueue);
+            rounds.addLast(subQueue);
+            keys = rounds.size();
+        }
+        subQueue.items.addLast(new Item<>(item, Math.max(1, cost)));
+        size++;
+    }
+
+    /**
+     * @return the next item, or null if the queue is empty
+     */
+    Item<T> poll() {
+        SubQueue<T> subQueue;
+        while ((subQueue = rounds.peekFirst()) != null) {
+            Item<T> head = subQueue.items.peekFirst();
+            if (rounds.size() == 1) {
+                // Alone, it gets all the work: no need to go round for a large enough deficit.
+                subQueue.deficit = Math.max(subQueue.deficit, head.cost);
+            } else if (subQueue.deficit < head.cost) {
+                // Its turn is over: it gets a quantum for the next one, and waits for the others.
+                // An item costing more than a quantum is polled after enough turns.
+                subQueue.deficit += quantum;
+                rounds.addLast(rounds.pollFirst());
+                continue;
+            }
+
+            subQueue.deficit -= head.cost;
+            subQueue.items.pollFirst();
+            size--;
+            if (subQueue.items.isEmpty()) {
+                // An idle key does not keep its deficit.
+                rounds.pollFirst();
+                subQueues.remove(subQueue.key);
+                keys = rounds.size();
+            }
+            return head;
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Safe to read without the lock.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of keys with queued items, safe to read without the lock
+     */
+    int keys() {
+        return keys;
+    }
+
+    static class Item<T> {
+        final T value;
+        final long cost;
+
+        private Item(T value, long cost) {
+            this.value = value;
+            this.cost = cost;
+        }
+    }
+
+    private static class SubQueue<T> {
+        private final String key;
+        private final ArrayDeque<Item<T>> items = new ArrayDeque<>();
+        private long deficit;
+
+        private SubQueue(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package uk.ac.ebi.subs.validator.biosamples.scheduling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs validations on its own pool of workers, fairly across submissions, so a small submission does not wait
+ * behind a large one that got to the queue first.
+ *
+ * Validations are queued per submission, and the submissions take turns by deficit round robin, weighted by the
+ * {@link SampleCost} of their samples. A validation costing at least {@code oversized-cost} goes to a separate
+ * lane, served by its own workers, so a few huge samples can not hold up the small ones; those workers help with
+ * the standard lane when theirs is empty. Nothing is left idle while there is work, so a submission that is
+ * alone is validated as fast as before.
+ *
+ * Only the messages the consumers have prefetched can be reordered, so the prefetch bounds both the memory used and
+ * how far ahead a small submission can get. With a prefetch no larger than the quantum, the first turn of a large
+ * submission would take every message prefetched and nothing would ever be reordered; the validation listener and the
+ * adaptive concurrency controller therefore never use a prefetch below {@code min-prefetch}, which must be larger than
+ * the quantum. On shutdown queued validations are dropped; their messages are unacknowledged, so the broker delivers
+ * them again.
+ *
+ * Only active when {@code biosamples.validator.fair-scheduling.enabled} is set to true.
+ */
+@Component
+@ConditionalOnProperty(name = "biosamples.validator.fair-scheduling.enabled", havingValue = "true")
+public class FairScheduler implements DisposableBean {
+    private static Logger logger = LoggerFactory.getLogger(FairScheduler.class);
+
+    public static final String STANDARD_LANE = "standard";
+    public static final String OVERSIZED_LANE = "oversized";
+
+    private final long oversizedCost;
+    private final int minPrefetch;
+    private final ValidationMetrics validationMetrics;
+
+    private final Lane standard;
+    private final Lane oversized;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition standardAvailable = lock.newCondition();
+    private final Condition anyAvailable = lock.newCondition();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    @Autowired
+    public FairScheduler(@Value("${biosamples.validator.fair-scheduling.workers:4}") int standardWorkers,
+                         @Value("${biosamples.validator.fair-scheduling.oversized-workers:1}") int oversizedWorkers,
+                         @Value("${biosamples.validator.fair-scheduling.quantum:100}") long quantum,
+                         @Value("${biosamples.validator.fair-scheduling.oversized-cost:1000}") long oversizedCost,
+                         @Value("${biosamples.validator.fair-scheduling.min-prefetch:250}") int minPrefetch,
+                         MeterRegistry meterRegistry, ValidationMetrics validationMetrics) {
+        if (standardWorkers < 1 || oversizedWorkers < 1) {
+            throw new IllegalArgumentException("Both lanes need at least one worker, but got " + standardWorkers
+                    + " standard and " + oversizedWorkers + " oversized workers");
+        }
+        if (minPrefetch <= quantum) {
+            throw new IllegalArgumentException("The minimum prefetch must be larger than the quantum, or no submission "
+                    + "could ever overtake another, but got a minimum prefetch of " + minPrefetch + " and a quantum of " + quantum);
+        }
+        this.oversizedCost = oversizedCost;
+        this.minPrefetch = minPrefetch;
+        this.validationMetrics = validationMetrics;
+        this.standard = new Lane(STANDARD_LANE, quantum, meterRegistry);
+        this.oversized = new Lane(OVERSIZED_LANE, quantum, meterRegistry);
+        validationMetrics.setConsumerCount(standardWorkers + oversizedWorkers);
+
+        for (int i = 0; i < standardWorkers; i++) {
+            startWorker("validation-worker-" + i, false);
+        }
+        for (int i = 0; i < oversizedWorkers; i++) {
+            startWorker("validation-oversized-worker-" + i, true);
+        }
+        logger.info("Scheduling validations fairly on {} standard and {} oversized workers", standardWorkers, oversizedWorkers);
+    }
+
+    /**
+     * Queues a validation of the given submission; it runs on a worker thread when its turn comes.
+     */
+    public void submit(String submissionId, long cost, Runnable validation) {
+        Lane lane = cost >= oversizedCost ? oversized : standard;
+        Task task = new Task(validation, lane, System.nanoTime());
+
+        lock.lock();
+        try {
+            lane.queue.add(submissionId == null ? "" : submissionId, task, cost);
+            if (lane == standard) {
+                standardAvailable.signal();
+            }
+            anyAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the smallest prefetch the consumers feeding this scheduler may use
+     */
+    public int getMinPrefetch() {
+        return minPrefetch;
+    }
+
+    /**
+     * @return the number of validations waiting in the lane
+     */
+    public int depth(String lane) {
+        return (OVERSIZED_LANE.equals(lane) ? oversized : standard).queue.size();
+    }
+
+    @Override
+    public void destroy() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void startWorker(String name, boolean oversizedWorker) {
+        Thread thread = new Thread(() -> work(oversizedWorker), name);
+        thread.setDaemon(true);
+        workers.add(thread);
+        thread.start();
+    }
+
+    private void work(boolean oversizedWorker) {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = next(oversizedWorker)) == null) {
+                    (oversizedWorker ? anyAvailable : standardAvailable).await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            long startedNanos = System.nanoTime();
+            task.lane.waitTimer.record(startedNanos - task.queuedNanos, TimeUnit.NANOSECONDS);
+            try {
+                task.validation.run();
+            } catch (RuntimeException e) {
+                logger.error("Validation failed on worker {}", Thread.currentThread().getName(), e);
+            } finally {
+                validationMetrics.consumerBusySince(startedNanos);
+            }
+        }
+    }
+
+    /**
+     * Oversized workers take from their own lane first, standard workers only from theirs.
+     */
+    private Task next(boolean oversizedWorker) {
+        DeficitRoundRobinQueue.Item<Task> item = null;
+        if (oversizedWorker) {
+            item = oversized.queue.poll();
+        }
+        if (item == null) {
+            item = standard.queue.poll();
+        }
+        return item == null ? null : item.value;
+    }
+
+    private static class Lane {
+        private final DeficitRoundRobinQueue<Task> queue;
+        private final Timer waitTimer;
+
+        private Lane(String name, long quantum, MeterRegistry meterRegistry) {
+            this.queue = new DeficitRoundRobinQueue<>(quantum);
+            this.waitTimer = Timer.builder("biosamples.validator.lane.wait")
+                    .description("Time a validation waited in its lane for a worker")
+                    .tag("lane", name)
+                    .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                    .register(meterRegistry);
+            Gauge.builder("biosamples.validator.lane.depth", queue, DeficitRoundRobinQueue::size)
+                    .description("Validations waiting in the lane")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("biosamples.validator.lane.submissions", queue, DeficitRoundRobinQueue::keys)
+                    .description("Submissions with validations waiting in the lane")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static class Task {
+        private final Runnable validation;
+        private final Lane lane;
+        private final long queuedNanos;
+
+        private Task(Runnable validation, Lane lane, long queuedNanos) {
+            this.validation = validation;
+            this.lane = lane;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+}
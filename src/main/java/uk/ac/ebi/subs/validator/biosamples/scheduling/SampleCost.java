@@ -0,0 +1,34 @@
+package uk.ac.ebi.subs.validator.biosamples.scheduling;
+
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.submittable.Sample;
+
+import java.util.Collection;
+
+/**
+ * An estimate of the work of validating a sample, used as the cost of its validation by the {@link FairScheduler}:
+ * one, plus one per relationship, plus one per attribute value. The rules and the relationship target lookups
+ * take time in proportion to those.
+ */
+public final class SampleCost {
+
+    private SampleCost() {
+    }
+
+    public static long of(Sample sample) {
+        if (sample == null) {
+            return 1;
+        }
+
+        long cost = 1;
+        if (sample.getSampleRelationships() != null) {
+            cost += sample.getSampleRelationships().size();
+        }
+        if (sample.getAttributes() != null) {
+            for (Collection<Attribute> attributes : sample.getAttributes().values()) {
+                cost += attributes == null ? 0 : attributes.size();
+            }
+        }
+        return cost;
+    }
+}
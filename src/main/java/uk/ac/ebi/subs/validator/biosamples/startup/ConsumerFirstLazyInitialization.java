@@ -0,0 +1,100 @@
+package uk.ac.ebi.subs.validator.biosamples.startup;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes every singleton lazy, except what starts consuming the validation queue: the {@link SmartLifecycle} beans,
+ * which include the listener containers, and the beans with {@link RabbitListener}s, which are only registered as
+ * listeners once they are created. The {@link AmqpAdmin} and the queues, exchanges and bindings it declares, alone
+ * or in collections, are kept eager too, so they are declared on the first connection, before anything is consumed.
+ * The dependencies of all those are still created at startup; everything else, such as the actuator endpoints and
+ * the unused beans of the libraries, waits until it is first used.
+ *
+ * The type of a bean is read from its definition, the bean class or the return type of its factory method, so no bean
+ * is created to find it out. A bean whose type can not be told that way, such as the product of a {@link FactoryBean},
+ * is left eager.
+ */
+class ConsumerFirstLazyInitialization implements BeanFactoryPostProcessor, Ordered {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (!beanDefinition.isSingleton() || beanDefinition.isAbstract()
+                    || beanDefinition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                continue;
+            }
+
+            Class<?> beanType;
+            try {
+                beanType = declaredType(beanFactory.getMergedBeanDefinition(beanName), beanFactory.getBeanClassLoader());
+            } catch (BeansException e) {
+                continue;
+            }
+            if (beanType != null && !FactoryBean.class.isAssignableFrom(beanType) && !startsConsuming(beanType)) {
+                beanDefinition.setLazyInit(true);
+            }
+        }
+    }
+
+    /**
+     * @return the return type of the factory method of the bean, or else its bean class, or null if unknown
+     */
+    private static Class<?> declaredType(BeanDefinition beanDefinition, ClassLoader classLoader) {
+        String typeName;
+        if (beanDefinition.getFactoryMethodName() != null) {
+            MethodMetadata factoryMethod = beanDefinition instanceof AnnotatedBeanDefinition
+                    ? ((AnnotatedBeanDefinition) beanDefinition).getFactoryMethodMetadata()
+                    : null;
+            typeName = factoryMethod == null ? null : factoryMethod.getReturnTypeName();
+        } else {
+            typeName = beanDefinition.getBeanClassName();
+        }
+        if (typeName == null) {
+            return null;
+        }
+
+        try {
+            return ClassUtils.forName(typeName, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static boolean startsConsuming(Class<?> beanType) {
+        if (SmartLifecycle.class.isAssignableFrom(beanType)
+                || AmqpAdmin.class.isAssignableFrom(beanType)
+                || Declarable.class.isAssignableFrom(beanType)
+                || Collection.class.isAssignableFrom(beanType)
+                || AnnotationUtils.findAnnotation(beanType, RabbitListener.class) != null) {
+            return true;
+        }
+        AtomicBoolean hasListenerMethod = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> hasListenerMethod.set(true),
+                method -> !hasListenerMethod.get() && AnnotationUtils.findAnnotation(method, RabbitListener.class) != null);
+        return hasListenerMethod.get();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,48 @@
+package uk.ac.ebi.subs.validator.biosamples.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the fast start mode, for instances started to absorb a burst of validation requests.
+ * Only active when {@code biosamples.validator.fast-start.enabled} is set to true.
+ *
+ * Beans not needed to consume the validation queue are created lazily, see {@link ConsumerFirstLazyInitialization},
+ * and only the validator's own packages are scanned, see {@link ValidatorComponentScan}.
+ * With {@code biosamples.validator.fast-start.exit-when-ready} the application exits as soon as it is ready,
+ * which is how the {@code cdsArchive} Gradle task lists the classes loaded at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.fast-start.enabled", havingValue = "true")
+public class FastStartConfiguration {
+
+    /**
+     * Static, as it post-processes the bean factory this configuration is itself created by.
+     */
+    @Bean
+    static ConsumerFirstLazyInitialization consumerFirstLazyInitialization() {
+        return new ConsumerFirstLazyInitialization();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "biosamples.validator.fast-start.exit-when-ready", havingValue = "true")
+    ExitWhenReady exitWhenReady() {
+        return new ExitWhenReady();
+    }
+
+    static class ExitWhenReady implements ApplicationListener<ApplicationReadyEvent> {
+        private static Logger logger = LoggerFactory.getLogger(ExitWhenReady.class);
+
+        @Override
+        public void onApplicationEvent(ApplicationReadyEvent event) {
+            logger.info("Exiting once ready, as biosamples.validator.fast-start.exit-when-ready is set");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package uk.ac.ebi.subs.validator.biosamples.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long after the JVM started the validator reached each {@link Milestone} of its startup, up to
+ * handling its first message, so the time to the first validation can be tracked as a number.
+ *
+ * Each milestone is logged once when it is reached, the whole timeline once the first message is handled, and the
+ * milestones are published as the {@code biosamples.validator.startup} time gauges, tagged by milestone.
+ */
+@Component
+public class StartupTimeline implements ApplicationListener<ApplicationEvent> {
+    private static Logger logger = LoggerFactory.getLogger(StartupTimeline.class);
+
+    public enum Milestone {
+        CONTEXT_REFRESHED("context-refreshed"),
+        CONSUMER_STARTED("consumer-started"),
+        APPLICATION_READY("application-ready"),
+        FIRST_MESSAGE_RECEIVED("first-message-received"),
+        FIRST_MESSAGE_HANDLED("first-message-handled");
+
+        private final String tag;
+
+        Milestone(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final Milestone[] MILESTONES = Milestone.values();
+
+    private final AtomicLongArray reachedAtMillis = new AtomicLongArray(MILESTONES.length);
+
+    @Autowired
+    public StartupTimeline(MeterRegistry meterRegistry) {
+        for (Milestone milestone : MILESTONES) {
+            reachedAtMillis.set(milestone.ordinal(), -1);
+            TimeGauge.builder("biosamples.validator.startup", this, TimeUnit.MILLISECONDS, timeline -> timeline.millis(milestone))
+                    .description("Time from the JVM start to a startup milestone")
+                    .tag("milestone", milestone.tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent) {
+            reached(Milestone.CONTEXT_REFRESHED);
+        } else if (event instanceof AsyncConsumerStartedEvent) {
+            reached(Milestone.CONSUMER_STARTED);
+        } else if (event instanceof ApplicationReadyEvent) {
+            reached(Milestone.APPLICATION_READY);
+        }
+    }
+
+    public void messageReceived() {
+        reached(Milestone.FIRST_MESSAGE_RECEIVED);
+    }
+
+    public void messageHandled() {
+        reached(Milestone.FIRST_MESSAGE_HANDLED);
+    }
+
+    /**
+     * @return the milliseconds from the JVM start to the milestone, or NaN if it has not been reached
+     */
+    public double millis(Milestone milestone) {
+        long millis = reachedAtMillis.get(milestone.ordinal());
+        return millis < 0 ? Double.NaN : millis;
+    }
+
+    private void reached(Milestone milestone) {
+        int index = milestone.ordinal();
+        if (reachedAtMillis.get(index) >= 0) {
+            return;
+        }
+
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (reachedAtMillis.compareAndSet(index, -1, uptimeMillis)) {
+            logger.info("Startup milestone {} reached {} ms after the JVM started", milestone.tag, uptimeMillis);
+            if (milestone == Milestone.FIRST_MESSAGE_HANDLED) {
+                logger.info("Startup timeline: {}", this);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder timeline = new StringBuilder();
+        for (Milestone milestone : MILESTONES) {
+            long millis = reachedAtMillis.get(milestone.ordinal());
+            if (timeline.length() > 0) {
+                timeline.append(", ");
+            }
+            timeline.append(milestone.tag).append('=').append(millis < 0 ? "-" : millis + "ms");
+        }
+        return timeline.toString();
+    }
+}
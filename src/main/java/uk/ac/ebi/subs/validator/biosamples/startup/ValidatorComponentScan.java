@@ -0,0 +1,18 @@
+package uk.ac.ebi.subs.validator.biosamples.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Scans the whole {@code uk.ac.ebi.subs.validator} tree, including the components of {@code validator-common},
+ * as the validator always did. The application itself only scans {@code uk.ac.ebi.subs.validator.biosamples}.
+ *
+ * Not active in the fast start mode ({@code biosamples.validator.fast-start.enabled=true}): the validator's code only
+ * uses the data classes of {@code validator-common}, so none of its components are needed to consume the queue.
+ */
+@Configuration
+@ConditionalOnProperty(name = "biosamples.validator.fast-start.enabled", havingValue = "false", matchIfMissing = true)
+@ComponentScan(basePackages = "uk.ac.ebi.subs.validator")
+public class ValidatorComponentScan {
+}
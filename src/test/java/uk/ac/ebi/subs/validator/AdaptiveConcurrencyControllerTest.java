@@ -0,0 +1,117 @@
+package uk.ac.ebi.subs.validator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import uk.ac.ebi.subs.validator.biosamples.concurrency.AdaptiveConcurrencyController;
+import uk.ac.ebi.subs.validator.biosamples.concurrency.AdaptiveConcurrencyPolicy;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveConcurrencyControllerTest {
+
+    private static final String QUEUE = "validation";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationMetrics validationMetrics;
+    private SimpleMessageListenerContainer container;
+    private AmqpAdmin amqpAdmin;
+    private AdaptiveConcurrencyController controller;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validationMetrics = new ValidationMetrics(meterRegistry, 2);
+        container = mock(SimpleMessageListenerContainer.class);
+        amqpAdmin = mock(AmqpAdmin.class);
+
+        // a CPU watermark above 1 keeps the decisions independent of the load of the machine running the test
+        AdaptiveConcurrencyPolicy policy = new AdaptiveConcurrencyPolicy(1, 16, 1, 250, 60, 1000, 2.0, 3);
+        controller = new AdaptiveConcurrencyController(() -> container, amqpAdmin, QUEUE, policy,
+                validationMetrics, meterRegistry, true, 2, 10, TimeUnit.HOURS.toMillis(1));
+        controller.onApplicationEvent(new ContextRefreshedEvent(new GenericApplicationContext()));
+    }
+
+    @After
+    public void tearDown() {
+        controller.destroy();
+    }
+
+    @Test
+    public void containerIsSizedFromConsumerBusyTimeTest() {
+        queueDepth(50000);
+        // 100 messages that kept a consumer busy 20 ms each, whatever their end to end handling time
+        for (int i = 0; i < 100; i++) {
+            validationMetrics.messageHandled(validationMetrics.messageReceived());
+            validationMetrics.consumerBusySince(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+        }
+
+        controller.adapt();
+
+        verify(container).setConcurrentConsumers(4);
+        verify(container).setPrefetchCount(50);
+        Assert.assertEquals(4, meterRegistry.get("biosamples.validator.listener.consumers").gauge().value(), 0);
+        Assert.assertEquals(50, meterRegistry.get("biosamples.validator.listener.prefetch").gauge().value(), 0);
+    }
+
+    @Test
+    public void onlyThePrefetchIsAdaptedUnderFairSchedulingTest() {
+        controller.destroy();
+        container = mock(SimpleMessageListenerContainer.class);
+        // the FairScheduler counts its 5 workers, which do the validations
+        validationMetrics.setConsumerCount(5);
+        AdaptiveConcurrencyPolicy policy = new AdaptiveConcurrencyPolicy(1, 16, 1, 250, 60, 1000, 2.0, 3);
+        controller = new AdaptiveConcurrencyController(() -> container, amqpAdmin, QUEUE, policy,
+                validationMetrics, meterRegistry = new SimpleMeterRegistry(), false, 2, 10, TimeUnit.HOURS.toMillis(1));
+        controller.onApplicationEvent(new ContextRefreshedEvent(new GenericApplicationContext()));
+
+        queueDepth(50000);
+        for (int i = 0; i < 100; i++) {
+            validationMetrics.messageHandled(validationMetrics.messageReceived());
+            validationMetrics.consumerBusySince(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+        }
+
+        controller.adapt();
+
+        verify(container).setPrefetchCount(50);
+        // only the initial sizing, when the context was refreshed
+        verify(container, times(1)).setConcurrentConsumers(anyInt());
+        Assert.assertEquals(5, validationMetrics.getConsumerCount());
+        Assert.assertEquals(2, meterRegistry.get("biosamples.validator.listener.consumers").gauge().value(), 0);
+    }
+
+    @Test
+    public void unknownQueueDepthLeavesTheContainerAsItIsTest() {
+        when(amqpAdmin.getQueueProperties(QUEUE)).thenReturn(null);
+        validationMetrics.messageHandled(validationMetrics.messageReceived());
+        validationMetrics.consumerBusySince(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+
+        controller.adapt();
+
+        // only the initial sizing, when the context was refreshed
+        verify(container, times(1)).setConcurrentConsumers(anyInt());
+        verify(container, times(1)).setPrefetchCount(anyInt());
+        Assert.assertEquals(2, meterRegistry.get("biosamples.validator.listener.consumers").gauge().value(), 0);
+    }
+
+    private void queueDepth(long depth) {
+        Properties queueProperties = new Properties();
+        queueProperties.put(RabbitAdmin.QUEUE_MESSAGE_COUNT, depth);
+        when(amqpAdmin.getQueueProperties(QUEUE)).thenReturn(queueProperties);
+    }
+}
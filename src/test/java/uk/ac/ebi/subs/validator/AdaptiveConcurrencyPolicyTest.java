@@ -0,0 +1,74 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.validator.biosamples.concurrency.AdaptiveConcurrencyPolicy;
+
+public class AdaptiveConcurrencyPolicyTest {
+
+    private AdaptiveConcurrencyPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new AdaptiveConcurrencyPolicy(1, 16, 1, 250, 60, 1000, 0.85, 3);
+    }
+
+    @Test
+    public void burstScalesUpAtMostDoublingTest() {
+        // 50k messages at 20 ms each: 3000 messages per consumer per minute, 17 consumers wanted
+        AdaptiveConcurrencyPolicy.Decision decision = policy.decide(2, 50, 50000, 20, 0.3);
+
+        Assert.assertEquals(4, decision.getConsumers());
+        Assert.assertEquals(50, decision.getPrefetch());
+    }
+
+    @Test
+    public void consumersStayWithinBoundsTest() {
+        int consumers = 1;
+        for (int i = 0; i < 10; i++) {
+            consumers = policy.decide(consumers, 50, 1000000, 20, 0.3).getConsumers();
+        }
+
+        Assert.assertEquals(16, consumers);
+    }
+
+    @Test
+    public void idleQueueScalesDownAfterQuietIntervalsTest() {
+        Assert.assertEquals(8, policy.decide(8, 50, 0, Double.NaN, 0.1).getConsumers());
+        Assert.assertEquals(8, policy.decide(8, 50, 0, Double.NaN, 0.1).getConsumers());
+        Assert.assertEquals(7, policy.decide(8, 50, 0, Double.NaN, 0.1).getConsumers());
+    }
+
+    @Test
+    public void highCpuPreventsScalingUpTest() {
+        AdaptiveConcurrencyPolicy.Decision decision = policy.decide(4, 50, 50000, 20, 0.95);
+
+        Assert.assertEquals(3, decision.getConsumers());
+        Assert.assertEquals("cpu", decision.getReason());
+    }
+
+    @Test
+    public void prefetchFollowsHandlingTimeTest() {
+        Assert.assertEquals(250, policy.decide(1, 50, 0, 1, 0.1).getPrefetch());
+        Assert.assertEquals(10, policy.decide(1, 50, 0, 100, 0.1).getPrefetch());
+        Assert.assertEquals(1, policy.decide(1, 50, 0, 5000, 0.1).getPrefetch());
+    }
+
+    @Test
+    public void unknownHandlingTimeKeepsConsumersTest() {
+        AdaptiveConcurrencyPolicy.Decision decision = policy.decide(4, 50, 1000, Double.NaN, 0.1);
+
+        Assert.assertEquals(4, decision.getConsumers());
+        Assert.assertEquals(50, decision.getPrefetch());
+    }
+
+    @Test
+    public void prefetchStaysAboveTheFairSchedulingMinimumTest() {
+        AdaptiveConcurrencyPolicy fairPolicy = policy.withMinPrefetch(500);
+
+        // 20 ms messages alone would get a prefetch of 50
+        Assert.assertEquals(500, fairPolicy.decide(2, 500, 1000, 20, 0.3).getPrefetch());
+        Assert.assertEquals(500, fairPolicy.getMinPrefetch());
+    }
+}
@@ -0,0 +1,156 @@
+package uk.ac.ebi.subs.validator;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import uk.ac.ebi.subs.validator.biosamples.batch.BatchValidatorListener;
+import uk.ac.ebi.subs.validator.biosamples.messaging.DelayedRetry;
+import uk.ac.ebi.subs.validator.biosamples.messaging.LatestVersions;
+import uk.ac.ebi.subs.validator.biosamples.messaging.PublisherConfirms;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationRequestMessageConverter;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationResultsPublisher;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+
+public class BatchValidatorListenerTest {
+
+    private static final long CONFIRM_TIMEOUT_MILLIS = 1000;
+
+    private ValidationResultsPublisher validationResultsPublisher;
+    private ValidationRequestMessageConverter messageConverter;
+    private PublisherConfirms publisherConfirms;
+    private Channel channel;
+    private BatchValidatorListener batchValidatorListener;
+
+    @Before
+    public void setUp() {
+        validationResultsPublisher = mock(ValidationResultsPublisher.class);
+        messageConverter = mock(ValidationRequestMessageConverter.class);
+        publisherConfirms = mock(PublisherConfirms.class);
+        when(publisherConfirms.send(anyString(), anyString(), any(Message.class))).thenReturn(CompletableFuture.completedFuture(null));
+        channel = mock(Channel.class);
+    }
+
+    @After
+    public void tearDown() {
+        batchValidatorListener.destroy();
+    }
+
+    @Test
+    public void fullBatchIsPublishedOnceAndAckedPerMessageTest() throws Exception {
+        batchValidatorListener = listener(3, 60000);
+
+        for (long deliveryTag = 1; deliveryTag <= 3; deliveryTag++) {
+            batchValidatorListener.onMessage(message(deliveryTag), channel);
+        }
+
+        ArgumentCaptor<List> results = ArgumentCaptor.forClass(List.class);
+        verify(validationResultsPublisher, timeout(2000).times(1)).publishConfirmed(results.capture(), eq(CONFIRM_TIMEOUT_MILLIS));
+        Assert.assertEquals(3, results.getValue().size());
+        for (long deliveryTag = 1; deliveryTag <= 3; deliveryTag++) {
+            verify(channel, timeout(2000)).basicAck(deliveryTag, false);
+        }
+    }
+
+    @Test
+    public void partialBatchIsFlushedWhenTheWindowElapsesTest() throws Exception {
+        batchValidatorListener = listener(10, 50);
+
+        batchValidatorListener.onMessage(message(1), channel);
+        batchValidatorListener.onMessage(message(2), channel);
+        verify(validationResultsPublisher, never()).publishConfirmed(any(List.class), anyLong());
+
+        ArgumentCaptor<List> results = ArgumentCaptor.forClass(List.class);
+        verify(validationResultsPublisher, timeout(2000)).publishConfirmed(results.capture(), eq(CONFIRM_TIMEOUT_MILLIS));
+        Assert.assertEquals(2, results.getValue().size());
+        verify(channel, timeout(2000)).basicAck(1, false);
+        verify(channel, timeout(2000)).basicAck(2, false);
+    }
+
+    @Test
+    public void batchIsRetriedWhenItsResultsCanNotBePublishedTest() throws Exception {
+        batchValidatorListener = listener(2, 60000);
+        doThrow(new AmqpException("nacked")).when(validationResultsPublisher).publishConfirmed(any(List.class), anyLong());
+
+        batchValidatorListener.onMessage(message(1), channel);
+        batchValidatorListener.onMessage(message(2), channel);
+
+        verify(publisherConfirms, timeout(2000).times(2)).send(eq(""), eq(DelayedRetry.delayQueueName(5000)), any(Message.class));
+        verify(channel, timeout(2000)).basicAck(1, false);
+        verify(channel, timeout(2000)).basicAck(2, false);
+    }
+
+    @Test
+    public void batchIsRequeuedWhenItCanNotBeRetriedTest() throws Exception {
+        batchValidatorListener = listener(2, 60000);
+        doThrow(new AmqpException("nacked")).when(validationResultsPublisher).publishConfirmed(any(List.class), anyLong());
+        doThrow(new AmqpException("connection lost")).when(publisherConfirms).send(anyString(), anyString(), any(Message.class));
+
+        batchValidatorListener.onMessage(message(1), channel);
+        batchValidatorListener.onMessage(message(2), channel);
+
+        verify(channel, timeout(2000)).basicNack(1, false, true);
+        verify(channel, timeout(2000)).basicNack(2, false, true);
+        verify(channel, never()).basicAck(anyLong(), eq(false));
+    }
+
+    @Test
+    public void batchIsRetriedWhenPublishingFailsUnexpectedlyTest() throws Exception {
+        batchValidatorListener = listener(2, 60000);
+        doThrow(new IllegalStateException("unexpected")).when(validationResultsPublisher).publishConfirmed(any(List.class), anyLong());
+
+        batchValidatorListener.onMessage(message(1), channel);
+        batchValidatorListener.onMessage(message(2), channel);
+
+        verify(publisherConfirms, timeout(2000).times(2)).send(eq(""), eq(DelayedRetry.delayQueueName(5000)), any(Message.class));
+        verify(channel, timeout(2000)).basicAck(1, false);
+        verify(channel, timeout(2000)).basicAck(2, false);
+    }
+
+    private BatchValidatorListener listener(int batchSize, long batchWindowMillis) {
+        ValidationMetrics validationMetrics = new ValidationMetrics(new SimpleMeterRegistry(), 1);
+        DelayedRetry delayedRetry = new DelayedRetry(publisherConfirms, validationMetrics, 3, 5000, 2, 35000, CONFIRM_TIMEOUT_MILLIS);
+
+        return new BatchValidatorListener(TestUtils.generateBiosamplesValidator(), validationResultsPublisher,
+                messageConverter, validationMetrics, delayedRetry, new LatestVersions(true, 1000, 60),
+                batchSize, batchWindowMillis, CONFIRM_TIMEOUT_MILLIS, 1, 10);
+    }
+
+    private Message message(long deliveryTag) {
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setDeliveryTag(deliveryTag);
+        Message message = new Message(new byte[0], messageProperties);
+
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(1);
+        envelope.setSubmissionId("submission");
+        envelope.setEntityToValidate(generateSample("alias" + deliveryTag));
+        when(messageConverter.fromMessage(message)).thenReturn(envelope);
+        return message;
+    }
+}
@@ -11,6 +11,7 @@ import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
 
 import java.util.Arrays;
 
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
 import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
 import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
 import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
@@ -24,7 +25,7 @@ public class BioSamplesValidatorTest {
 
     @Before
     public void setUp() {
-        validator = new BiosamplesValidator();
+        validator = generateBiosamplesValidator();
         sample = generateSample("sampleAlias");
     }
 
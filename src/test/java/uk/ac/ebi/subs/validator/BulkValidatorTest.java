@@ -0,0 +1,112 @@
+package uk.ac.ebi.subs.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.bulk.BulkValidationSummary;
+import uk.ac.ebi.subs.validator.biosamples.bulk.BulkValidator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+
+public class BulkValidatorTest {
+
+    private ObjectMapper objectMapper;
+
+    private ExecutorService executor;
+
+    private List<Sample> samples;
+
+    @Before
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        executor = Executors.newFixedThreadPool(4);
+
+        samples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(generateSample(i % 10 == 0 ? "" : "sampleAlias" + i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void newlineDelimitedInputIsValidatedInOrderTest() throws Exception {
+        StringBuilder input = new StringBuilder();
+        for (Sample sample : samples) {
+            input.append(objectMapper.writeValueAsString(sample)).append('\n');
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BulkValidationSummary summary = new BulkValidator(generateBiosamplesValidator(), executor, true, 8)
+                .validate(toInputStream(input.toString()), output);
+
+        Assert.assertEquals(100, summary.getValidated());
+        Assert.assertEquals(90, summary.getPassed());
+        Assert.assertEquals(10, summary.getErrors());
+        Assert.assertEquals(0, summary.getFailed());
+
+        List<JsonNode> results = readResults(output);
+        Assert.assertEquals(100, results.size());
+        for (int i = 0; i < samples.size(); i++) {
+            Assert.assertEquals(i % 10 == 0 ? "Error" : "Pass",
+                    results.get(i).get("singleValidationResults").get(0).get("validationStatus").asText());
+        }
+    }
+
+    @Test
+    public void jsonArrayInputIsValidatedUnorderedTest() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BulkValidationSummary summary = new BulkValidator(generateBiosamplesValidator(), executor, false, 8)
+                .validate(toInputStream(objectMapper.writeValueAsString(samples)), output);
+
+        Assert.assertEquals(100, summary.getValidated());
+        Assert.assertEquals(10, summary.getErrors());
+        Assert.assertEquals(100, readResults(output).size());
+    }
+
+    @Test
+    public void elementsThatAreNotSamplesAreSkippedTest() throws Exception {
+        String input = objectMapper.writeValueAsString(samples.get(1)) + '\n' +
+                "\"not a sample\"\n" +
+                "{\"alias\": \"badDate\", \"releaseDate\": \"not a date\"}\n" +
+                objectMapper.writeValueAsString(samples.get(2)) + '\n';
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BulkValidationSummary summary = new BulkValidator(generateBiosamplesValidator(), executor, ordered, 8)
+                    .validate(toInputStream(input), output);
+
+            Assert.assertEquals(2, summary.getValidated());
+            Assert.assertEquals(2, summary.getFailed());
+            Assert.assertEquals(2, readResults(output).size());
+        }
+    }
+
+    private static ByteArrayInputStream toInputStream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> readResults(ByteArrayOutputStream output) throws Exception {
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,158 @@
+package uk.ac.ebi.subs.validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistLoader;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistRegistry;
+import uk.ac.ebi.subs.validator.biosamples.checklists.ChecklistRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.CodedValidationResult;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+
+public class ChecklistRuleTest {
+
+    private static final String CHECKLIST = "{\"name\": \"test\", \"attributes\": [" +
+            "{\"name\": \"organism\", \"required\": true}," +
+            "{\"name\": \"Collection Date\", \"required\": true, \"date\": true}," +
+            "{\"name\": \"age\", \"pattern\": \"\\\\d+\", \"units\": [\"years\", \"days\"], \"level\": \"warning\"}]}";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File checklistDirectory;
+    private ChecklistRegistry registry;
+    private ChecklistRule rule;
+
+    @Before
+    public void setUp() throws IOException {
+        checklistDirectory = temporaryFolder.newFolder("checklists");
+        write("test.json", CHECKLIST);
+        write(ChecklistLoader.SUBMISSIONS_FILE, "submission-1=test\n");
+
+        ChecklistLoader loader = new ChecklistLoader(new PathMatchingResourcePatternResolver(), new ObjectMapper(),
+                checklistDirectory.toURI().toString());
+        registry = new ChecklistRegistry(loader, 0);
+        rule = new ChecklistRule(registry, "checklist", "");
+    }
+
+    @Test
+    public void sampleWithoutChecklistIsNotCheckedTest() {
+        SampleValidationContext context = new SampleValidationContext(generateSample("alias"), "another-submission");
+        rule.validate(context);
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    @Test
+    public void missingRequiredAttributesAreErrorsTest() {
+        Sample sample = sampleWithChecklist("test");
+        SampleValidationContext context = new SampleValidationContext(sample);
+        rule.validate(context);
+
+        Assert.assertEquals(2, context.getFailures().size());
+        Assert.assertTrue(templatesOf(context).stream().allMatch(ChecklistRule.REQUIRED_ATTRIBUTE_MISSING::equals));
+        Assert.assertTrue(context.getFailures().stream()
+                .allMatch(result -> result.getValidationStatus() == SingleValidationResultStatus.Error));
+    }
+
+    @Test
+    public void validAttributesPassTest() {
+        Sample sample = sampleWithChecklist("test");
+        put(sample, " Organism ", "Homo sapiens", null);
+        put(sample, "collection date", "2019-02-28T10:15:30+01:00", null);
+        put(sample, "age", "42", "years");
+        put(sample, "not in the checklist", "anything", null);
+
+        SampleValidationContext context = new SampleValidationContext(sample);
+        rule.validate(context);
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    @Test
+    public void invalidValuesAndUnitsAreReportedTest() {
+        Sample sample = sampleWithChecklist("test");
+        put(sample, "organism", "Homo sapiens", null);
+        put(sample, "collection date", "2019-02-30", null);
+        put(sample, "age", "forty two", "decades");
+
+        SampleValidationContext context = new SampleValidationContext(sample);
+        rule.validate(context);
+
+        List<String> templates = templatesOf(context);
+        Assert.assertEquals(3, templates.size());
+        Assert.assertTrue(templates.contains(ChecklistRule.ATTRIBUTE_DATE_INVALID));
+        Assert.assertTrue(templates.contains(ChecklistRule.ATTRIBUTE_VALUE_MISMATCH));
+        Assert.assertTrue(templates.contains(ChecklistRule.ATTRIBUTE_UNITS_INVALID));
+    }
+
+    @Test
+    public void checklistOfTheSubmissionIsUsedTest() {
+        SampleValidationContext context = new SampleValidationContext(generateSample("alias"), "submission-1");
+        rule.validate(context);
+
+        Assert.assertEquals(2, context.getFailures().size());
+    }
+
+    @Test
+    public void unknownChecklistIsAnErrorTest() {
+        SampleValidationContext context = new SampleValidationContext(sampleWithChecklist("unknown"));
+        rule.validate(context);
+
+        Assert.assertEquals(Collections.singletonList(ChecklistRule.CHECKLIST_UNKNOWN), templatesOf(context));
+    }
+
+    @Test
+    public void reloadSwapsInChangedChecklistsTest() throws IOException {
+        write("test.json", "{\"name\": \"test\", \"attributes\": [{\"name\": \"organism\", \"required\": true}]}");
+        Assert.assertTrue(registry.reload());
+
+        SampleValidationContext context = new SampleValidationContext(sampleWithChecklist("test"));
+        rule.validate(context);
+        Assert.assertEquals(1, context.getFailures().size());
+
+        write("test.json", "{\"attributes\": []}");
+        Assert.assertFalse(registry.reload());
+        Assert.assertNotNull(registry.getChecklists().get("test"));
+    }
+
+    private Sample sampleWithChecklist(String checklist) {
+        Sample sample = generateSample("alias");
+        put(sample, "checklist", checklist, null);
+        return sample;
+    }
+
+    private static void put(Sample sample, String name, String value, String units) {
+        Attribute attribute = new Attribute();
+        attribute.setValue(value);
+        attribute.setUnits(units);
+        sample.getAttributes().put(name, Collections.singletonList(attribute));
+    }
+
+    private static List<String> templatesOf(SampleValidationContext context) {
+        return context.getFailures().stream()
+                .map(result -> ((CodedValidationResult) result).getMessageTemplate())
+                .collect(Collectors.toList());
+    }
+
+    private void write(String fileName, String content) throws IOException {
+        Files.write(new File(checklistDirectory, fileName).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
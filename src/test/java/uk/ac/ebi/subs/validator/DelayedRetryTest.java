@@ -0,0 +1,138 @@
+package uk.ac.ebi.subs.validator;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import uk.ac.ebi.subs.validator.biosamples.messaging.DelayedRetry;
+import uk.ac.ebi.subs.validator.biosamples.messaging.PendingValidation;
+import uk.ac.ebi.subs.validator.biosamples.messaging.PublisherConfirms;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class DelayedRetryTest {
+
+    private PublisherConfirms publisherConfirms;
+    private Channel channel;
+    private SimpleMeterRegistry meterRegistry;
+    private DelayedRetry delayedRetry;
+
+    @Before
+    public void setUp() {
+        publisherConfirms = mock(PublisherConfirms.class);
+        when(publisherConfirms.send(anyString(), anyString(), any(Message.class))).thenReturn(CompletableFuture.completedFuture(null));
+        channel = mock(Channel.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        delayedRetry = new DelayedRetry(publisherConfirms, new ValidationMetrics(meterRegistry, 1), 3, 5000, 2, 35000, 1000);
+    }
+
+    @Test
+    public void delaysGrowUpToTheMaximumTest() {
+        Assert.assertArrayEquals(new long[]{5000, 10000, 20000, 35000, 35000}, DelayedRetry.retryDelays(6, 5000, 2, 35000));
+    }
+
+    @Test
+    public void oneDelayQueuePerDistinctDelayTest() {
+        List<Queue> delayQueues = delayedRetry.delayQueues();
+
+        Assert.assertEquals(2, delayQueues.size());
+        Assert.assertEquals(DelayedRetry.delayQueueName(5000), delayQueues.get(0).getName());
+        Assert.assertEquals(5000L, delayQueues.get(0).getArguments().get("x-message-ttl"));
+        Assert.assertEquals("biosamples-sample-validation", delayQueues.get(0).getArguments().get("x-dead-letter-routing-key"));
+    }
+
+    @Test
+    public void failedMessageIsSentToTheDelayQueueOfItsAttemptTest() throws Exception {
+        Message message = message(1, null);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, message, channel, System.nanoTime()));
+
+        verify(publisherConfirms).send("", DelayedRetry.delayQueueName(5000), message);
+        verify(channel).basicAck(1, false);
+        Assert.assertEquals(1, message.getMessageProperties().getHeaders().get(DelayedRetry.ATTEMPT_HEADER));
+
+        Message retriedMessage = message(2, 1);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, retriedMessage, channel, System.nanoTime()));
+
+        verify(publisherConfirms).send("", DelayedRetry.delayQueueName(10000), retriedMessage);
+        verify(channel).basicAck(2, false);
+        Assert.assertEquals(2.0, meterRegistry.get("biosamples.validator.retries").tag("outcome", "scheduled").counter().count(), 0);
+    }
+
+    @Test
+    public void messageIsRejectedAfterTheLastAttemptTest() throws Exception {
+        Message message = message(3, 2);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, message, channel, System.nanoTime()));
+
+        verifyZeroInteractions(publisherConfirms);
+        verify(channel).basicNack(3, false, false);
+        verify(channel, never()).basicAck(3, false);
+        Assert.assertEquals(1.0, meterRegistry.get("biosamples.validator.retries").tag("outcome", "exhausted").counter().count(), 0);
+    }
+
+    @Test
+    public void messageIsRequeuedWhenItsRetryIsNackedTest() throws Exception {
+        when(publisherConfirms.send(anyString(), anyString(), any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("nacked")));
+        Message message = message(4, null);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, message, channel, System.nanoTime()));
+
+        verify(channel).basicNack(4, false, true);
+        verify(channel, never()).basicAck(4, false);
+        Assert.assertEquals(0.0, meterRegistry.get("biosamples.validator.retries").tag("outcome", "scheduled").counter().count(), 0);
+    }
+
+    @Test
+    public void messageIsAckedOnlyOnceItsRetryIsConfirmedTest() throws Exception {
+        CompletableFuture<Void> confirm = new CompletableFuture<>();
+        when(publisherConfirms.send(anyString(), anyString(), any(Message.class))).thenReturn(confirm);
+        Message message = message(5, null);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, message, channel, System.nanoTime()));
+
+        verifyZeroInteractions(channel);
+        confirm.complete(null);
+        verify(channel).basicAck(5, false);
+    }
+
+    @Test
+    public void messageIsRequeuedWhenItsRetryIsNotConfirmedInTimeTest() throws Exception {
+        when(publisherConfirms.send(anyString(), anyString(), any(Message.class))).thenReturn(new CompletableFuture<>());
+        delayedRetry = new DelayedRetry(publisherConfirms, new ValidationMetrics(meterRegistry, 1), 3, 5000, 2, 35000, 50);
+        Message message = message(6, null);
+
+        delayedRetry.retryOrReject(new PendingValidation(null, message, channel, System.nanoTime()));
+
+        verify(channel, timeout(2000)).basicNack(6, false, true);
+        verify(channel, never()).basicAck(6, false);
+    }
+
+    private static Message message(long deliveryTag, Integer previousRetries) {
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setDeliveryTag(deliveryTag);
+        if (previousRetries != null) {
+            messageProperties.setHeader(DelayedRetry.ATTEMPT_HEADER, previousRetries);
+        }
+        return new Message(new byte[0], messageProperties);
+    }
+}
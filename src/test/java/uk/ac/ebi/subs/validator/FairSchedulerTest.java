@@ -0,0 +1,165 @@
+package uk.ac.ebi.subs.validator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.scheduling.FairScheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class FairSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FairScheduler fairScheduler;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fairScheduler = new FairScheduler(1, 1, 10, 1000, 50, meterRegistry, new ValidationMetrics(meterRegistry, 1));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        fairScheduler.destroy();
+    }
+
+    @Test
+    public void smallSubmissionDoesNotWaitBehindLargeOneTest() throws InterruptedException {
+        occupyWorkers(fairScheduler, 2);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(102);
+        for (int i = 0; i < 100; i++) {
+            fairScheduler.submit("large", 1, () -> {
+                order.add("large");
+                done.countDown();
+            });
+        }
+        for (int i = 0; i < 2; i++) {
+            fairScheduler.submit("small", 1, () -> {
+                order.add("small");
+                done.countDown();
+            });
+        }
+
+        Assert.assertEquals(102, fairScheduler.depth(FairScheduler.STANDARD_LANE));
+        release.countDown();
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // The first turn of the large submission is a quantum of 10, then the small one gets its turn.
+        Assert.assertTrue(order.lastIndexOf("small") <= 15);
+        Assert.assertEquals(0, fairScheduler.depth(FairScheduler.STANDARD_LANE));
+    }
+
+    @Test
+    public void smallSubmissionOvertakesLargeOneUnderDefaultSettingsTest() throws InterruptedException {
+        FairScheduler defaultScheduler = new FairScheduler(4, 1, 100, 1000, 250, meterRegistry, new ValidationMetrics(meterRegistry, 1));
+        try {
+            occupyWorkers(defaultScheduler, 5);
+
+            // As much as the default minimum prefetch lets the consumers hold: the large submission came first
+            List<String> order = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(250);
+            for (int i = 0; i < 245; i++) {
+                defaultScheduler.submit("large", 1, () -> {
+                    order.add("large");
+                    done.countDown();
+                });
+            }
+            for (int i = 0; i < 5; i++) {
+                defaultScheduler.submit("small", 1, () -> {
+                    order.add("small");
+                    done.countDown();
+                });
+            }
+
+            release.countDown();
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            // After the first turn of the large submission, a quantum of 100, give or take what the 5 workers run at once
+            Assert.assertTrue(order.lastIndexOf("small") < 115);
+        } finally {
+            defaultScheduler.destroy();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchNoLargerThanTheQuantumIsRejectedTest() {
+        new FairScheduler(1, 1, 100, 1000, 100, meterRegistry, new ValidationMetrics(meterRegistry, 1));
+    }
+
+    @Test
+    public void oversizedSampleDoesNotBlockSmallOnesTest() throws InterruptedException {
+        CountDownLatch oversizedStarted = new CountDownLatch(1);
+        CountDownLatch oversizedRelease = new CountDownLatch(1);
+        fairScheduler.submit("huge", 5000, () -> {
+            oversizedStarted.countDown();
+            awaitQuietly(oversizedRelease);
+        });
+        Assert.assertTrue(oversizedStarted.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch smallDone = new CountDownLatch(1);
+        fairScheduler.submit("small", 3, smallDone::countDown);
+
+        Assert.assertTrue(smallDone.await(10, TimeUnit.SECONDS));
+        oversizedRelease.countDown();
+    }
+
+    @Test
+    public void oversizedWorkerHelpsWithStandardLaneTest() throws InterruptedException {
+        // Both validations only finish if they run at the same time, on the standard and the oversized worker.
+        CountDownLatch together = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            fairScheduler.submit("small", 1, () -> {
+                together.countDown();
+                awaitQuietly(together);
+                done.countDown();
+            });
+        }
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void waitTimeIsRecordedPerLaneTest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        fairScheduler.submit("submission", 1, done::countDown);
+        fairScheduler.submit("submission", 2000, done::countDown);
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.lane.wait").tag("lane", FairScheduler.STANDARD_LANE).timer().count());
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.lane.wait").tag("lane", FairScheduler.OVERSIZED_LANE).timer().count());
+    }
+
+    /**
+     * Occupies all the workers, as the oversized ones help with the standard lane when theirs is empty.
+     */
+    private void occupyWorkers(FairScheduler scheduler, int workers) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            scheduler.submit("blocker", 1, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+        }
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
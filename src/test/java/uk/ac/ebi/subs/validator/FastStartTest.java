@@ -0,0 +1,103 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidatorApplication;
+import uk.ac.ebi.subs.validator.biosamples.messaging.ValidationRequestMessageConverter;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.UUID;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesMessagingConfiguration.VALIDATION_LISTENER_ID;
+
+/**
+ * Starts the whole validator in fast start mode. No broker listens on the configured port, so the consumers keep
+ * trying to connect, which is all a fast start has to get to.
+ */
+public class FastStartTest {
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        context = new SpringApplicationBuilder(BiosamplesValidatorApplication.class)
+                .web(false)
+                .properties(
+                        "biosamples.validator.fast-start.enabled=true",
+                        "spring.rabbitmq.host=localhost",
+                        "spring.rabbitmq.port=" + unusedPort(),
+                        "spring.boot.admin.auto-registration=false")
+                .run();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void validationListenerContainerIsStartedTest() {
+        MessageListenerContainer container = context.getBean(RabbitListenerEndpointRegistry.class)
+                .getListenerContainer(VALIDATION_LISTENER_ID);
+
+        Assert.assertNotNull(container);
+        Assert.assertTrue(container.isRunning());
+    }
+
+    @Test
+    public void adminAndDeclarablesAreCreatedAtStartupTest() {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        assertCreatedAtStartup(beanFactory, beanFactory.getBeanNamesForType(RabbitAdmin.class, false, false));
+        assertCreatedAtStartup(beanFactory, beanFactory.getBeanNamesForType(Queue.class, false, false));
+        assertCreatedAtStartup(beanFactory, beanFactory.getBeanNamesForType(Exchange.class, false, false));
+        assertCreatedAtStartup(beanFactory, beanFactory.getBeanNamesForType(Binding.class, false, false));
+        assertCreatedAtStartup(beanFactory, "biosamplesSampleQueue", "biosamplesSampleDelayQueues",
+                "validationForCreatedBiosamplesSampleBinding");
+    }
+
+    @Test
+    public void validationRequestsCanBeReadTest() {
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(1);
+        envelope.setEntityToValidate(generateSample("alias"));
+
+        SampleValidationMessageEnvelope read = context.getBean(ValidationRequestMessageConverter.class).fromMessage(
+                context.getBean(RabbitTemplate.class).getMessageConverter().toMessage(envelope, new MessageProperties()));
+
+        Assert.assertEquals(envelope.getValidationResultUUID(), read.getValidationResultUUID());
+    }
+
+    /**
+     * Looking a lazy bean up would create it, so this only checks the singletons already there.
+     */
+    private static void assertCreatedAtStartup(ConfigurableListableBeanFactory beanFactory, String... beanNames) {
+        Assert.assertTrue(beanNames.length > 0);
+        for (String beanName : beanNames) {
+            Assert.assertTrue(beanName + " was not created at startup", beanFactory.containsSingleton(beanName));
+        }
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.messaging.LatestVersions;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.util.UUID;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+
+public class LatestVersionsTest {
+
+    private LatestVersions latestVersions;
+
+    private Sample sample;
+
+    @Before
+    public void setUp() {
+        latestVersions = new LatestVersions(true, 1000, 60);
+        sample = generateSample("sampleAlias");
+    }
+
+    @Test
+    public void olderVersionIsSupersededTest() {
+        SampleValidationMessageEnvelope first = envelope(sample, 1);
+        SampleValidationMessageEnvelope second = envelope(sample, 2);
+
+        latestVersions.received(first);
+        Assert.assertFalse(latestVersions.isSuperseded(first));
+
+        latestVersions.received(second);
+        Assert.assertTrue(latestVersions.isSuperseded(first));
+        Assert.assertFalse(latestVersions.isSuperseded(second));
+    }
+
+    @Test
+    public void olderVersionReceivedLateDoesNotWinTest() {
+        SampleValidationMessageEnvelope first = envelope(sample, 1);
+        SampleValidationMessageEnvelope second = envelope(sample, 2);
+
+        latestVersions.received(second);
+        latestVersions.received(first);
+
+        Assert.assertTrue(latestVersions.isSuperseded(first));
+        Assert.assertFalse(latestVersions.isSuperseded(second));
+    }
+
+    @Test
+    public void redeliveredVersionIsNotSupersededTest() {
+        SampleValidationMessageEnvelope envelope = envelope(sample, 4);
+
+        latestVersions.received(envelope);
+        latestVersions.received(envelope(sample, 4));
+
+        Assert.assertFalse(latestVersions.isSuperseded(envelope));
+    }
+
+    @Test
+    public void samplesAreTrackedSeparatelyTest() {
+        Sample otherSample = generateSample("otherAlias");
+
+        latestVersions.received(envelope(sample, 1));
+        latestVersions.received(envelope(otherSample, 5));
+
+        Assert.assertFalse(latestVersions.isSuperseded(envelope(sample, 1)));
+        Assert.assertEquals(2, latestVersions.size());
+    }
+
+    @Test
+    public void nothingIsSupersededWhenDisabledTest() {
+        latestVersions = new LatestVersions(false, 1000, 60);
+        SampleValidationMessageEnvelope first = envelope(sample, 1);
+
+        latestVersions.received(first);
+        latestVersions.received(envelope(sample, 2));
+
+        Assert.assertFalse(latestVersions.isSuperseded(first));
+        Assert.assertEquals(0, latestVersions.size());
+    }
+
+    private static SampleValidationMessageEnvelope envelope(Sample sample, int version) {
+        SampleValidationMessageEnvelope envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(version);
+        envelope.setSubmissionId("submission");
+        envelope.setEntityToValidate(sample);
+        return envelope;
+    }
+}
@@ -0,0 +1,198 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.subs.data.component.Attribute;
+import uk.ac.ebi.subs.data.component.Term;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.ontology.OntologyDumpReader;
+import uk.ac.ebi.subs.validator.biosamples.ontology.OntologyTermRule;
+import uk.ac.ebi.subs.validator.biosamples.ontology.TermDictionary;
+import uk.ac.ebi.subs.validator.biosamples.ontology.TermDictionaryWriter;
+import uk.ac.ebi.subs.validator.biosamples.rules.CodedValidationResult;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+
+public class OntologyTermRuleTest {
+
+    private static final String OBO = "format-version: 1.2\n" +
+            "ontology: uberon\n\n" +
+            "[Term]\n" +
+            "id: UBERON:0002107 ! liver\n" +
+            "name: liver\n\n" +
+            "[Term]\n" +
+            "id: GO:0008150\n" +
+            "name: biological_process\n\n" +
+            "[Term]\n" +
+            "id: UBERON:0000001\n" +
+            "name: obsolete anatomical entity\n" +
+            "is_obsolete: true\n\n" +
+            "[Typedef]\n" +
+            "id: part_of\n" +
+            "name: part of\n";
+
+    private static final String OWL = "<?xml version=\"1.0\"?>" +
+            "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" " +
+            "xmlns:rdfs=\"http://www.w3.org/2000/01/rdf-schema#\" xmlns:owl=\"http://www.w3.org/2002/07/owl#\">" +
+            "<owl:Ontology rdf:about=\"http://www.ebi.ac.uk/efo/efo.owl\"/>" +
+            "<owl:Class rdf:about=\"http://www.ebi.ac.uk/efo/EFO_0000408\">" +
+            "<rdfs:label xml:lang=\"en\">disease</rdfs:label>" +
+            "<rdfs:subClassOf><owl:Restriction><owl:onProperty rdf:resource=\"http://example.org/p\"/></owl:Restriction></rdfs:subClassOf>" +
+            "</owl:Class>" +
+            "</rdf:RDF>";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TermDictionary termDictionary;
+
+    @Before
+    public void setUp() throws IOException {
+        TermDictionaryWriter writer = new TermDictionaryWriter();
+        OntologyDumpReader.readObo(new ByteArrayInputStream(OBO.getBytes(StandardCharsets.UTF_8)), writer::cover, writer::add);
+        OntologyDumpReader.readOwl(new ByteArrayInputStream(OWL.getBytes(StandardCharsets.UTF_8)), writer::cover, writer::add);
+
+        File dictionary = temporaryFolder.newFile("terms.dict");
+        writer.write(dictionary.toPath());
+        termDictionary = TermDictionary.open(dictionary.toPath());
+    }
+
+    @Test
+    public void termsAreFoundByIdAndByIriTest() {
+        Assert.assertEquals(4, termDictionary.size());
+        Assert.assertEquals("liver", termDictionary.lookup("UBERON:0002107").getLabel());
+        Assert.assertEquals("UBERON:0002107", termDictionary.lookup("http://purl.obolibrary.org/obo/UBERON_0002107").getId());
+        Assert.assertEquals("disease", termDictionary.lookup("EFO:0000408").getLabel());
+        Assert.assertTrue(termDictionary.lookup("UBERON:0000001").isObsolete());
+        Assert.assertNull(termDictionary.lookup("UBERON:9999999"));
+        Assert.assertNull(termDictionary.lookup("part_of"));
+    }
+
+    @Test
+    public void checksumIsWrittenInTheHeaderTest() throws IOException {
+        byte[] bytes = Files.readAllBytes(temporaryFolder.getRoot().toPath().resolve("terms.dict"));
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 16, bytes.length - 16);
+
+        Assert.assertEquals(crc.getValue(), termDictionary.getChecksum());
+    }
+
+    @Test
+    public void validTermPassesTest() {
+        SampleValidationContext context = validate("organism part", "liver", "http://purl.obolibrary.org/obo/UBERON_0002107");
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    @Test
+    public void unknownTermOfCoveredOntologyIsAnErrorTest() {
+        SampleValidationContext context = validate("organism part", "liver", "http://purl.obolibrary.org/obo/UBERON_9999999");
+
+        Assert.assertEquals(Collections.singletonList(OntologyTermRule.TERM_NOT_FOUND), templatesOf(context));
+    }
+
+    @Test
+    public void termOfAnotherOntologyIsSkippedTest() {
+        SampleValidationContext context = validate("organism", "Homo sapiens", "http://purl.obolibrary.org/obo/NCBITaxon_9606");
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    @Test
+    public void onlyOntologiesNamedInTheDumpHeadersAreCoveredTest() {
+        Assert.assertEquals(new HashSet<>(Arrays.asList("UBERON", "EFO")), termDictionary.getPrefixes());
+        Assert.assertNotNull(termDictionary.lookup("GO:0008150"));
+
+        SampleValidationContext context = validate("biological process", "growth", "http://purl.obolibrary.org/obo/GO_0040007");
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    @Test
+    public void configuredPrefixesReplaceTheDumpHeadersTest() {
+        Sample sample = sampleWithTerm("biological process", "growth", "http://purl.obolibrary.org/obo/GO_0040007");
+        SampleValidationContext context = new SampleValidationContext(sample);
+        new OntologyTermRule(termDictionary, new String[0], new String[]{"go"}).validate(context);
+
+        Assert.assertEquals(Collections.singletonList(OntologyTermRule.TERM_NOT_FOUND), templatesOf(context));
+    }
+
+    @Test
+    public void termOfAnOboDumpIsFoundByItsOtherIrisTest() throws IOException {
+        TermDictionaryWriter writer = new TermDictionaryWriter();
+        String obo = "format-version: 1.2\n" +
+                "ontology: efo\n\n" +
+                "[Term]\n" +
+                "id: EFO:0000408\n" +
+                "name: disease\n";
+        OntologyDumpReader.readObo(new ByteArrayInputStream(obo.getBytes(StandardCharsets.UTF_8)), writer::cover, writer::add);
+        File dictionary = temporaryFolder.newFile("efo.dict");
+        writer.write(dictionary.toPath());
+        termDictionary = TermDictionary.open(dictionary.toPath());
+
+        for (String termUrl : Arrays.asList("http://www.ebi.ac.uk/efo/EFO_0000408", "https://www.ebi.ac.uk/efo/EFO_0000408",
+                "https://identifiers.org/EFO:0000408")) {
+            Assert.assertFalse(termUrl, validate("disease", "disease", termUrl).hasFailures());
+        }
+        Assert.assertEquals(Collections.singletonList(OntologyTermRule.TERM_NOT_FOUND),
+                templatesOf(validate("disease", "disease", "http://www.ebi.ac.uk/efo/EFO_9999999")));
+    }
+
+    @Test
+    public void obsoleteTermAndLabelMismatchAreWarningsTest() {
+        SampleValidationContext context = validate("organism part", "liver", "http://purl.obolibrary.org/obo/UBERON_0000001");
+
+        Assert.assertEquals(2, context.getFailures().size());
+        Assert.assertTrue(templatesOf(context).contains(OntologyTermRule.TERM_OBSOLETE));
+        Assert.assertTrue(templatesOf(context).contains(OntologyTermRule.TERM_LABEL_MISMATCH));
+    }
+
+    @Test
+    public void onlyConfiguredAttributesAreCheckedTest() {
+        Sample sample = sampleWithTerm("organism part", "liver", "http://purl.obolibrary.org/obo/UBERON_9999999");
+        SampleValidationContext context = new SampleValidationContext(sample);
+        new OntologyTermRule(termDictionary, new String[]{"disease"}).validate(context);
+
+        Assert.assertFalse(context.hasFailures());
+    }
+
+    private SampleValidationContext validate(String attributeName, String value, String termUrl) {
+        SampleValidationContext context = new SampleValidationContext(sampleWithTerm(attributeName, value, termUrl));
+        new OntologyTermRule(termDictionary, new String[0]).validate(context);
+        return context;
+    }
+
+    private static Sample sampleWithTerm(String attributeName, String value, String termUrl) {
+        Term term = new Term();
+        term.setUrl(termUrl);
+        Attribute attribute = new Attribute();
+        attribute.setValue(value);
+        attribute.setTerms(Collections.singletonList(term));
+
+        Sample sample = generateSample("alias");
+        sample.getAttributes().put(attributeName, Collections.singletonList(attribute));
+        return sample;
+    }
+
+    private static List<String> templatesOf(SampleValidationContext context) {
+        return context.getFailures().stream()
+                .map(result -> ((CodedValidationResult) result).getMessageTemplate())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+package uk.ac.ebi.subs.validator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.relationships.BiosamplesBulkFetchLookup;
+import uk.ac.ebi.subs.validator.biosamples.relationships.RelationshipTargetResolver;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+public class RelationshipTargetResolverTest {
+
+    private HttpServer stubServer;
+    private AtomicInteger requestCount = new AtomicInteger();
+
+    private RelationshipTargetResolver resolver;
+    private BiosamplesValidator validator;
+
+    @Before
+    public void setUp() throws Exception {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/biosamples/samples/bulk-fetch", exchange -> {
+            requestCount.incrementAndGet();
+            byte[] body = "{\"SAMEA1\":{\"accession\":\"SAMEA1\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        stubServer.start();
+
+        String bulkFetchUrl = "http://localhost:" + stubServer.getAddress().getPort() + "/biosamples/samples/bulk-fetch";
+        resolver = new RelationshipTargetResolver(
+                new BiosamplesBulkFetchLookup(bulkFetchUrl, Duration.ofSeconds(1), Duration.ofSeconds(5)),
+                100, 50, 60, 60, 1);
+
+        validator = generateBiosamplesValidator();
+        validator.setRelationshipTargetResolver(resolver);
+    }
+
+    @After
+    public void tearDown() {
+        resolver.destroy();
+        stubServer.stop(0);
+    }
+
+    @Test
+    public void missingTargetIsAnErrorTest() throws Exception {
+        Sample sample = generateSample("sampleAlias");
+        sample.setSampleRelationships(Arrays.asList(
+                generateSampleRelationship("SAMEA1", "derived from", null),
+                generateSampleRelationship("SAMEA2", "derived from", null)));
+
+        SingleValidationResultsEnvelope validationResultsEnvelope = validator.validateSampleAsync(generateValidationMessageEnvelope(sample))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, validationResultsEnvelope.getSingleValidationResults().size());
+        Assert.assertEquals(SingleValidationResultStatus.Error, validationResultsEnvelope.getSingleValidationResults().get(0).getValidationStatus());
+        Assert.assertTrue(validationResultsEnvelope.getSingleValidationResults().get(0).getMessage().contains("SAMEA2"));
+    }
+
+    @Test
+    public void targetsOfConcurrentSamplesAreLookedUpTogetherTest() throws Exception {
+        Sample firstSample = generateSample("firstSample");
+        firstSample.setSampleRelationships(Arrays.asList(generateSampleRelationship("SAMEA1", "derived from", null)));
+        Sample secondSample = generateSample("secondSample");
+        secondSample.setSampleRelationships(Arrays.asList(generateSampleRelationship("SAMEA1", "child of", null)));
+
+        CompletableFuture<SingleValidationResultsEnvelope> first = validator.validateSampleAsync(generateValidationMessageEnvelope(firstSample));
+        CompletableFuture<SingleValidationResultsEnvelope> second = validator.validateSampleAsync(generateValidationMessageEnvelope(secondSample));
+
+        Assert.assertEquals(SingleValidationResultStatus.Pass, first.get(5, TimeUnit.SECONDS).getSingleValidationResults().get(0).getValidationStatus());
+        Assert.assertEquals(SingleValidationResultStatus.Pass, second.get(5, TimeUnit.SECONDS).getSingleValidationResults().get(0).getValidationStatus());
+        Assert.assertEquals(1, requestCount.get());
+
+        validator.validateSampleAsync(generateValidationMessageEnvelope(firstSample)).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, requestCount.get());
+    }
+}
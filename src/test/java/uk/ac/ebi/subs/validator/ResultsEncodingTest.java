@@ -0,0 +1,91 @@
+package uk.ac.ebi.subs.validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.results.CompactResultsCodec;
+import uk.ac.ebi.subs.validator.biosamples.results.ResultsEncoding;
+import uk.ac.ebi.subs.validator.biosamples.results.ValidationResultsMessageConverter;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+public class ResultsEncodingTest {
+
+    private SingleValidationResultsEnvelope envelope;
+
+    @Before
+    public void setUp() {
+        Sample sample = generateSample("", LocalDate.now(), "update", Arrays.asList(
+                generateSampleRelationship("SAMEA100001", "unknown nature", null),
+                generateSampleRelationship("SAMEA100002", "another unknown nature", null),
+                null));
+        envelope = generateBiosamplesValidator().validateSample(generateValidationMessageEnvelope(sample));
+    }
+
+    @Test
+    public void smileRoundTripTest() throws Exception {
+        assertRoundTrip(ResultsEncoding.SMILE);
+    }
+
+    @Test
+    public void cborRoundTripTest() throws Exception {
+        assertRoundTrip(ResultsEncoding.CBOR);
+    }
+
+    @Test
+    public void binaryEncodingsAreSmallerThanJsonTest() throws Exception {
+        int jsonSize = new ObjectMapper().writeValueAsBytes(envelope).length;
+
+        Assert.assertTrue(new CompactResultsCodec(ResultsEncoding.SMILE).encode(envelope).length < jsonSize / 2);
+        Assert.assertTrue(new CompactResultsCodec(ResultsEncoding.CBOR).encode(envelope).length < jsonSize / 2);
+    }
+
+    @Test
+    public void encodingIsChosenByContentTypeTest() {
+        ValidationResultsMessageConverter jsonConverter = new ValidationResultsMessageConverter(ResultsEncoding.JSON, new Jackson2JsonMessageConverter());
+        ValidationResultsMessageConverter smileConverter = new ValidationResultsMessageConverter(ResultsEncoding.SMILE, new Jackson2JsonMessageConverter());
+
+        Message jsonMessage = jsonConverter.toMessage(envelope, new MessageProperties());
+        Message smileMessage = smileConverter.toMessage(envelope, new MessageProperties());
+
+        Assert.assertEquals(MessageProperties.CONTENT_TYPE_JSON, jsonMessage.getMessageProperties().getContentType());
+        Assert.assertEquals("application/x-jackson-smile", smileMessage.getMessageProperties().getContentType());
+        assertSameResults(envelope, (SingleValidationResultsEnvelope) smileConverter.fromMessage(smileMessage));
+        assertSameResults(envelope, (SingleValidationResultsEnvelope) jsonConverter.fromMessage(smileMessage));
+    }
+
+    private void assertRoundTrip(ResultsEncoding encoding) throws Exception {
+        CompactResultsCodec codec = new CompactResultsCodec(encoding);
+
+        assertSameResults(envelope, codec.decode(codec.encode(envelope)));
+    }
+
+    private static void assertSameResults(SingleValidationResultsEnvelope expected, SingleValidationResultsEnvelope actual) {
+        Assert.assertEquals(expected.getValidationResultUUID(), actual.getValidationResultUUID());
+        Assert.assertEquals(expected.getValidationResultVersion(), actual.getValidationResultVersion());
+        Assert.assertEquals(expected.getSingleValidationResults().size(), actual.getSingleValidationResults().size());
+        for (int i = 0; i < expected.getSingleValidationResults().size(); i++) {
+            SingleValidationResult expectedResult = expected.getSingleValidationResults().get(i);
+            SingleValidationResult actualResult = actual.getSingleValidationResults().get(i);
+            Assert.assertEquals(expectedResult.getValidationStatus(), actualResult.getValidationStatus());
+            Assert.assertEquals(expectedResult.getMessage(), actualResult.getMessage());
+            Assert.assertEquals(expectedResult.getEntityUuid(), actualResult.getEntityUuid());
+        }
+        Assert.assertTrue(actual.getSingleValidationResults().stream()
+                .anyMatch(result -> result.getValidationStatus() == SingleValidationResultStatus.Warning));
+    }
+}
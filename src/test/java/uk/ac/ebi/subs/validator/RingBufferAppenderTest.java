@@ -0,0 +1,128 @@
+package uk.ac.ebi.subs.validator;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.validator.biosamples.logging.RingBufferAppender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class RingBufferAppenderTest {
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+
+    @Before
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        logger = loggerContext.getLogger(RingBufferAppenderTest.class);
+    }
+
+    @Test
+    public void whenProducersOutpaceTheBuffer_thenBlockingLosesNoEventsAndKeepsTheirOrder() throws InterruptedException {
+        ListAppender<ILoggingEvent> listAppender = startedListAppender();
+        RingBufferAppender appender = ringBufferAppender(16, RingBufferAppender.DropPolicy.BLOCK, listAppender);
+
+        int producerCount = 4;
+        int eventsPerProducer = 2000;
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            String producer = "producer-" + p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    appender.doAppend(event(Level.INFO, producer, i));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        appender.stop();
+
+        Assert.assertEquals(producerCount * eventsPerProducer, listAppender.list.size());
+        Assert.assertEquals(0, appender.getDroppedCount());
+
+        int[] lastSeen = new int[producerCount];
+        Arrays.fill(lastSeen, -1);
+        for (ILoggingEvent event : listAppender.list) {
+            int producer = Integer.parseInt(((String) event.getArgumentArray()[0]).substring("producer-".length()));
+            int sequence = (Integer) event.getArgumentArray()[1];
+            Assert.assertEquals(lastSeen[producer] + 1, sequence);
+            lastSeen[producer] = sequence;
+        }
+    }
+
+    @Test
+    public void whenTheBufferIsFull_thenInfoEventsAreDroppedButWarningsAreNot() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        ListAppender<ILoggingEvent> listAppender = startedListAppender();
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                listAppender.doAppend(event);
+            }
+        };
+        slowAppender.setContext(loggerContext);
+        slowAppender.start();
+        RingBufferAppender appender = ringBufferAppender(2, RingBufferAppender.DropPolicy.DROP, slowAppender);
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.INFO, "producer", i));
+        }
+        Assert.assertTrue(appender.getDroppedCount() > 0);
+
+        Thread warning = new Thread(() -> appender.doAppend(event(Level.WARN, "producer", 10)));
+        warning.start();
+        release.countDown();
+        warning.join();
+        appender.stop();
+
+        Assert.assertTrue(listAppender.list.stream()
+                .anyMatch(event -> event.getLevel() == Level.WARN && Integer.valueOf(10).equals(event.getArgumentArray()[1])));
+        Assert.assertTrue(listAppender.list.stream()
+                .anyMatch(event -> event.getFormattedMessage().startsWith("Dropped " + appender.getDroppedCount() + " log events")));
+        Assert.assertEquals(11 - appender.getDroppedCount() + 1, listAppender.list.size());
+    }
+
+    private ListAppender<ILoggingEvent> startedListAppender() {
+        ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+        return listAppender;
+    }
+
+    private RingBufferAppender ringBufferAppender(int capacity, RingBufferAppender.DropPolicy dropPolicy,
+                                                  Appender<ILoggingEvent> target) {
+        RingBufferAppender appender = new RingBufferAppender();
+        appender.setContext(loggerContext);
+        appender.setName("ASYNC");
+        appender.setCapacity(capacity);
+        appender.setDropPolicy(dropPolicy);
+        appender.setMaxFlushTimeMillis(10000);
+        appender.addAppender(target);
+        appender.start();
+        return appender;
+    }
+
+    private LoggingEvent event(Level level, String producer, int sequence) {
+        return new LoggingEvent(RingBufferAppenderTest.class.getName(), logger, level, "{} sent event {}",
+                null, new Object[]{producer, sequence});
+    }
+}
@@ -0,0 +1,67 @@
+package uk.ac.ebi.subs.validator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline.Milestone.CONSUMER_STARTED;
+import static uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline.Milestone.CONTEXT_REFRESHED;
+import static uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline.Milestone.FIRST_MESSAGE_HANDLED;
+import static uk.ac.ebi.subs.validator.biosamples.startup.StartupTimeline.Milestone.FIRST_MESSAGE_RECEIVED;
+
+public class StartupTimelineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StartupTimeline startupTimeline;
+    private ValidationMetrics validationMetrics;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        startupTimeline = new StartupTimeline(meterRegistry);
+        validationMetrics = new ValidationMetrics(meterRegistry, 1);
+        validationMetrics.setStartupTimeline(startupTimeline);
+    }
+
+    @Test
+    public void milestonesAreRecordedOnceTest() throws InterruptedException {
+        Assert.assertTrue(Double.isNaN(startupTimeline.millis(CONTEXT_REFRESHED)));
+
+        startupTimeline.onApplicationEvent(new ContextRefreshedEvent(new GenericApplicationContext()));
+        double contextRefreshed = startupTimeline.millis(CONTEXT_REFRESHED);
+        Thread.sleep(5);
+        startupTimeline.onApplicationEvent(new ContextRefreshedEvent(new GenericApplicationContext()));
+
+        Assert.assertFalse(Double.isNaN(contextRefreshed));
+        Assert.assertEquals(contextRefreshed, startupTimeline.millis(CONTEXT_REFRESHED), 0);
+        Assert.assertTrue(Double.isNaN(startupTimeline.millis(CONSUMER_STARTED)));
+    }
+
+    @Test
+    public void firstMessageIsRecordedThroughMetricsTest() {
+        long receivedNanos = validationMetrics.messageReceived();
+        Assert.assertFalse(Double.isNaN(startupTimeline.millis(FIRST_MESSAGE_RECEIVED)));
+        Assert.assertTrue(Double.isNaN(startupTimeline.millis(FIRST_MESSAGE_HANDLED)));
+
+        validationMetrics.messageHandled(receivedNanos);
+
+        Assert.assertTrue(startupTimeline.millis(FIRST_MESSAGE_HANDLED) >= startupTimeline.millis(FIRST_MESSAGE_RECEIVED));
+        Assert.assertTrue(startupTimeline.toString().contains("first-message-handled="));
+    }
+
+    @Test
+    public void milestonesArePublishedAsGaugesTest() {
+        validationMetrics.messageHandled(validationMetrics.messageReceived());
+
+        double gauge = meterRegistry.get("biosamples.validator.startup").tag("milestone", "first-message-handled")
+                .timeGauge().value(TimeUnit.MILLISECONDS);
+        Assert.assertEquals(startupTimeline.millis(FIRST_MESSAGE_HANDLED), gauge, 0);
+    }
+}
@@ -0,0 +1,103 @@
+package uk.ac.ebi.subs.validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.messaging.StreamingSampleEnvelopeReader;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleField;
+import uk.ac.ebi.subs.validator.data.SampleValidationMessageEnvelope;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+
+public class StreamingSampleEnvelopeReaderTest {
+
+    private ObjectMapper objectMapper;
+
+    private Sample sample;
+
+    private SampleValidationMessageEnvelope envelope;
+
+    @Before
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        sample = generateSample("sampleAlias", LocalDate.of(2017, 7, 6), "update",
+                Collections.singletonList(generateSampleRelationship("SAMEA100001", "derived from", "otherAlias")));
+
+        envelope = new SampleValidationMessageEnvelope();
+        envelope.setValidationResultUUID(UUID.randomUUID().toString());
+        envelope.setValidationResultVersion(3);
+        envelope.setSubmissionId("submission");
+        envelope.setEntityToValidate(sample);
+    }
+
+    @Test
+    public void onlyRequiredFieldsAreReadTest() throws Exception {
+        StreamingSampleEnvelopeReader reader = new StreamingSampleEnvelopeReader(objectMapper,
+                EnumSet.of(SampleField.ALIAS, SampleField.RELEASE_DATE, SampleField.SAMPLE_RELATIONSHIPS));
+
+        SampleValidationMessageEnvelope converted = reader.read(toMessage(objectMapper, envelope));
+        Sample convertedSample = (Sample) converted.getEntityToValidate();
+
+        Assert.assertEquals(envelope.getValidationResultUUID(), converted.getValidationResultUUID());
+        Assert.assertEquals(3, converted.getValidationResultVersion());
+        Assert.assertEquals("submission", converted.getSubmissionId());
+        Assert.assertEquals(sample.getId(), convertedSample.getId());
+        Assert.assertEquals("sampleAlias", convertedSample.getAlias());
+        Assert.assertEquals(LocalDate.of(2017, 7, 6), convertedSample.getReleaseDate());
+        Assert.assertEquals(1, convertedSample.getSampleRelationships().size());
+        Assert.assertEquals("SAMEA100001", convertedSample.getSampleRelationships().get(0).getAccession());
+        Assert.assertEquals("derived from", convertedSample.getSampleRelationships().get(0).getRelationshipNature());
+        Assert.assertEquals("otherAlias", convertedSample.getSampleRelationships().get(0).getAlias());
+        Assert.assertTrue(convertedSample.getAttributes().isEmpty());
+    }
+
+    @Test
+    public void attributesAreReadWhenRequiredTest() throws Exception {
+        StreamingSampleEnvelopeReader reader = new StreamingSampleEnvelopeReader(objectMapper,
+                EnumSet.of(SampleField.ATTRIBUTES));
+
+        Sample convertedSample = (Sample) reader.read(toMessage(objectMapper, envelope)).getEntityToValidate();
+
+        Assert.assertNull(convertedSample.getAlias());
+        Assert.assertNull(convertedSample.getReleaseDate());
+        Assert.assertEquals("update", convertedSample.getAttributes().get("update").iterator().next().getValue());
+    }
+
+    @Test
+    public void releaseDateAsStringTest() throws Exception {
+        ObjectMapper isoDateObjectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        StreamingSampleEnvelopeReader reader = new StreamingSampleEnvelopeReader(objectMapper,
+                EnumSet.of(SampleField.RELEASE_DATE));
+
+        Sample convertedSample = (Sample) reader.read(toMessage(isoDateObjectMapper, envelope)).getEntityToValidate();
+
+        Assert.assertEquals(LocalDate.of(2017, 7, 6), convertedSample.getReleaseDate());
+    }
+
+    @Test(expected = MessageConversionException.class)
+    public void malformedMessageIsRejectedTest() {
+        StreamingSampleEnvelopeReader reader = new StreamingSampleEnvelopeReader(objectMapper,
+                EnumSet.allOf(SampleField.class));
+
+        reader.read(new Message("{\"entityToValidate\": [".getBytes(StandardCharsets.UTF_8), new MessageProperties()));
+    }
+
+    private static Message toMessage(ObjectMapper objectMapper, SampleValidationMessageEnvelope envelope) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(envelope), new MessageProperties());
+    }
+}
@@ -0,0 +1,163 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.graph.RelationshipGraphIndex;
+import uk.ac.ebi.subs.validator.biosamples.graph.SubmissionRelationshipGraph;
+import uk.ac.ebi.subs.validator.biosamples.graph.SubmissionRelationshipGraphRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.ValidationMessageEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateDefaultRules;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSampleRelationship;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+public class SubmissionRelationshipGraphTest {
+
+    private SubmissionRelationshipGraph graph;
+
+    private BiosamplesValidator validator;
+
+    @Before
+    public void setUp() {
+        graph = new SubmissionRelationshipGraph();
+
+        List<SampleValidationRule> rules = new ArrayList<>(generateDefaultRules());
+        rules.add(new SubmissionRelationshipGraphRule(new RelationshipGraphIndex(60, 10), Arrays.asList("derived from", "child of")));
+        validator = new BiosamplesValidator(rules);
+    }
+
+    @Test
+    public void edgesAgainstTheOrderAreReorderedTest() {
+        int a = graph.nodeId("a");
+        int b = graph.nodeId("b");
+        int c = graph.nodeId("c");
+
+        Assert.assertTrue(graph.addEdge(c, b));
+        Assert.assertTrue(graph.addEdge(b, a));
+        Assert.assertTrue(graph.addEdge(c, a));
+    }
+
+    @Test
+    public void edgeClosingACycleIsRefusedTest() {
+        int a = graph.nodeId("a");
+        int b = graph.nodeId("b");
+        int c = graph.nodeId("c");
+
+        Assert.assertTrue(graph.addEdge(a, b));
+        Assert.assertTrue(graph.addEdge(b, c));
+        Assert.assertFalse(graph.addEdge(c, a));
+        Assert.assertFalse(graph.addEdge(a, a));
+    }
+
+    @Test
+    public void redeclaredNodeLosesItsEdgesTest() {
+        int a = graph.nodeId("a");
+        int b = graph.nodeId("b");
+
+        Assert.assertTrue(graph.addEdge(a, b));
+        graph.declare(a);
+        Assert.assertTrue(graph.addEdge(b, a));
+    }
+
+    @Test
+    public void relationshipCycleInSubmissionTest() {
+        Sample first = generateSample("first");
+        first.setSampleRelationships(Arrays.asList(generateSampleRelationship(null, "derived from", "second")));
+        Sample second = generateSample("second");
+        second.setSampleRelationships(Arrays.asList(generateSampleRelationship(null, "derived from", "first")));
+
+        SingleValidationResultsEnvelope firstResults = validator.validateSample(envelopeInSubmission(first, "submission"));
+        SingleValidationResultsEnvelope secondResults = validator.validateSample(envelopeInSubmission(second, "submission"));
+
+        Assert.assertEquals(1, firstResults.getSingleValidationResults().size());
+        Assert.assertEquals(SingleValidationResultStatus.Pass, firstResults.getSingleValidationResults().get(0).getValidationStatus());
+        Assert.assertEquals(1, secondResults.getSingleValidationResults().size());
+        Assert.assertEquals(SingleValidationResultStatus.Error, secondResults.getSingleValidationResults().get(0).getValidationStatus());
+    }
+
+    @Test
+    public void submissionsHaveSeparateGraphsTest() {
+        Sample first = generateSample("first");
+        first.setSampleRelationships(Arrays.asList(generateSampleRelationship(null, "derived from", "second")));
+        Sample second = generateSample("second");
+        second.setSampleRelationships(Arrays.asList(generateSampleRelationship(null, "derived from", "first")));
+
+        validator.validateSample(envelopeInSubmission(first, "submission"));
+        SingleValidationResultsEnvelope secondResults = validator.validateSample(envelopeInSubmission(second, "anotherSubmission"));
+
+        Assert.assertEquals(SingleValidationResultStatus.Pass, secondResults.getSingleValidationResults().get(0).getValidationStatus());
+    }
+
+    @Test
+    public void unresolvedTargetsAreOnlyThoseNeverValidatedTest() {
+        int first = graph.nodeId("first");
+        graph.declare(first);
+        graph.refer(first, graph.nodeId("second"));
+        graph.refer(first, graph.nodeId("outside"));
+        Assert.assertEquals(Arrays.asList("second", "outside"), graph.unresolvedTargets());
+
+        graph.declare(graph.nodeId("second"));
+        Assert.assertEquals(Arrays.asList("outside"), graph.unresolvedTargets());
+
+        // the new version of the sample no longer refers to the alias
+        graph.declare(first);
+        Assert.assertEquals(Collections.emptyList(), graph.unresolvedTargets());
+    }
+
+    @Test
+    public void unresolvedTargetsAreCountedWhenTheSubmissionIsDroppedTest() {
+        AtomicLong nanos = new AtomicLong();
+        RelationshipGraphIndex index = new RelationshipGraphIndex(60, 10, nanos::get);
+        validator = new BiosamplesValidator(Arrays.asList(
+                new SubmissionRelationshipGraphRule(index, Arrays.asList("derived from", "child of"))));
+
+        Sample first = generateSample("first");
+        first.setSampleRelationships(Arrays.asList(generateSampleRelationship(null, "derived from", "second"),
+                generateSampleRelationship(null, "same as", "outside")));
+        Sample second = generateSample("second");
+        validator.validateSample(envelopeInSubmission(first, "submission"));
+        validator.validateSample(envelopeInSubmission(second, "submission"));
+        Assert.assertEquals(0, index.getUnresolvedTargets());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(61));
+        index.graphOf("anotherSubmission");
+
+        Assert.assertEquals(1, index.getUnresolvedTargets());
+    }
+
+    @Test
+    public void idleSubmissionGraphIsDroppedTest() {
+        AtomicLong nanos = new AtomicLong();
+        RelationshipGraphIndex index = new RelationshipGraphIndex(60, 10, nanos::get);
+
+        SubmissionRelationshipGraph submissionGraph = index.graphOf("submission");
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(59));
+        Assert.assertSame(submissionGraph, index.graphOf("submission"));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(59));
+        Assert.assertSame(submissionGraph, index.graphOf("submission"));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(61));
+        Assert.assertNotSame(submissionGraph, index.graphOf("submission"));
+    }
+
+    private ValidationMessageEnvelope envelopeInSubmission(Sample sample, String submissionId) {
+        ValidationMessageEnvelope envelope = generateValidationMessageEnvelope(sample);
+        envelope.setSubmissionId(submissionId);
+        return envelope;
+    }
+}
@@ -3,17 +3,37 @@ package uk.ac.ebi.subs.validator;
 import uk.ac.ebi.subs.data.component.Attribute;
 import uk.ac.ebi.subs.data.component.SampleRelationship;
 import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleAliasRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleRelationshipsRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleReleaseDateRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
 import uk.ac.ebi.subs.validator.data.ValidationMessageEnvelope;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 public class TestUtils {
 
+    public static final List<String> RELATIONSHIP_NATURES = Arrays.asList("derived from", "child of", "same as", "recurated from");
+
+    public static List<SampleValidationRule> generateDefaultRules() {
+        return Arrays.asList(
+                new SampleAliasRule(),
+                new SampleReleaseDateRule(),
+                new SampleRelationshipsRule(RELATIONSHIP_NATURES)
+        );
+    }
+
+    public static BiosamplesValidator generateBiosamplesValidator() {
+        return new BiosamplesValidator(generateDefaultRules());
+    }
+
     public static Sample generateSample(String alias) {
         return generateSample(alias, LocalDate.now());
     }
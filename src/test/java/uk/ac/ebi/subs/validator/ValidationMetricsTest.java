@@ -0,0 +1,91 @@
+package uk.ac.ebi.subs.validator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.metrics.ValidationMetrics;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+import static uk.ac.ebi.subs.validator.biosamples.messaging.BiosamplesValidatorRoutingKeys.EVENT_VALIDATION_ERROR;
+
+public class ValidationMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationMetrics validationMetrics;
+    private BiosamplesValidator validator;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validationMetrics = new ValidationMetrics(meterRegistry, 1);
+        validator = generateBiosamplesValidator();
+        validator.setValidationMetrics(validationMetrics);
+    }
+
+    @Test
+    public void eachRuleIsTimedTest() {
+        validator.validateSample(generateValidationMessageEnvelope(generateSample("sampleAlias")));
+
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.rule").tag("rule", "SampleAliasRule").timer().count());
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.rule").tag("rule", "SampleReleaseDateRule").timer().count());
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.rule").tag("rule", "SampleRelationshipsRule").timer().count());
+    }
+
+    @Test
+    public void resultsAreCountedByStatusAndRoutingKeyTest() {
+        SingleValidationResultsEnvelope validationResultsEnvelope = validator.validateSample(generateValidationMessageEnvelope(generateSample("")));
+        validationMetrics.resultsPublished(validationResultsEnvelope, EVENT_VALIDATION_ERROR);
+
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.results")
+                .tag("status", "Error").tag("routingKey", EVENT_VALIDATION_ERROR).counter().count(), 0);
+    }
+
+    @Test
+    public void inFlightMessagesAreTrackedTest() {
+        long receivedNanos = validationMetrics.messageReceived();
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.messages.in-flight").gauge().value(), 0);
+
+        validationMetrics.messageHandled(receivedNanos);
+        Assert.assertEquals(0, meterRegistry.get("biosamples.validator.messages.in-flight").gauge().value(), 0);
+        Assert.assertEquals(1, meterRegistry.get("biosamples.validator.message.handling").timer().count());
+    }
+
+    @Test
+    public void utilisationCountsOnlyConsumerBusyTimeTest() {
+        AtomicLong nanos = new AtomicLong();
+        validationMetrics = new ValidationMetrics(meterRegistry = new SimpleMeterRegistry(), 1, 50, nanos::get);
+        long receivedNanos = validationMetrics.messageReceived();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        validationMetrics.consumerBusySince(receivedNanos);
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(90));
+        validationMetrics.messageHandled(receivedNanos);
+
+        Assert.assertEquals(0.1, meterRegistry.get("biosamples.validator.consumer.utilisation").gauge().value(), 1e-9);
+        Assert.assertEquals(100, meterRegistry.get("biosamples.validator.message.handling").timer()
+                .totalTime(TimeUnit.MILLISECONDS), 1e-9);
+    }
+
+    @Test
+    public void utilisationIsNotResetByReadingItTest() {
+        AtomicLong nanos = new AtomicLong();
+        validationMetrics = new ValidationMetrics(meterRegistry = new SimpleMeterRegistry(), 1, 50, nanos::get);
+        long startedNanos = nanos.get();
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(45));
+        validationMetrics.consumerBusySince(startedNanos);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(15));
+
+        Assert.assertEquals(0.75, validationMetrics.getUtilisation(), 1e-9);
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(30));
+        Assert.assertEquals(0.75, validationMetrics.getUtilisation(), 1e-9);
+        Assert.assertEquals(0.75, meterRegistry.get("biosamples.validator.consumer.utilisation").gauge().value(), 1e-9);
+    }
+}
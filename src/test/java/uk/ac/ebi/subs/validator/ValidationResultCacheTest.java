@@ -0,0 +1,142 @@
+package uk.ac.ebi.subs.validator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.subs.data.submittable.Sample;
+import uk.ac.ebi.subs.validator.biosamples.BiosamplesValidator;
+import uk.ac.ebi.subs.validator.biosamples.cache.ValidationResultCache;
+import uk.ac.ebi.subs.validator.biosamples.rules.CodedValidationResult;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleAliasRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleRelationshipsRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleReleaseDateRule;
+import uk.ac.ebi.subs.validator.biosamples.rules.SampleValidationRule;
+import uk.ac.ebi.subs.validator.data.SingleValidationResult;
+import uk.ac.ebi.subs.validator.data.SingleValidationResultsEnvelope;
+import uk.ac.ebi.subs.validator.data.ValidationMessageEnvelope;
+import uk.ac.ebi.subs.validator.data.structures.SingleValidationResultStatus;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static uk.ac.ebi.subs.validator.TestUtils.generateBiosamplesValidator;
+import static uk.ac.ebi.subs.validator.TestUtils.generateDefaultRules;
+import static uk.ac.ebi.subs.validator.TestUtils.generateSample;
+import static uk.ac.ebi.subs.validator.TestUtils.generateValidationMessageEnvelope;
+
+public class ValidationResultCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private BiosamplesValidator validator;
+    private ValidationResultCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ValidationResultCache(100, 60, "", generateDefaultRules());
+        validator = generateBiosamplesValidator();
+        validator.setValidationResultCache(cache);
+    }
+
+    @Test
+    public void unchangedSampleIsServedFromCacheTest() {
+        Sample sample = generateSample("");
+
+        ValidationMessageEnvelope firstEnvelope = generateValidationMessageEnvelope(sample);
+        validator.validateSample(firstEnvelope);
+
+        ValidationMessageEnvelope secondEnvelope = generateValidationMessageEnvelope(sample);
+        secondEnvelope.setValidationResultVersion(2);
+        SingleValidationResultsEnvelope validationResultsEnvelope = validator.validateSample(secondEnvelope);
+
+        Assert.assertEquals(1, cache.stats().hitCount());
+        Assert.assertEquals(1, cache.stats().missCount());
+        Assert.assertEquals(secondEnvelope.getValidationResultUUID(), validationResultsEnvelope.getValidationResultUUID());
+        Assert.assertEquals(2, validationResultsEnvelope.getValidationResultVersion());
+        Assert.assertEquals(SingleValidationResultStatus.Error, validationResultsEnvelope.getSingleValidationResults().get(0).getValidationStatus());
+    }
+
+    @Test
+    public void changedSampleIsValidatedAgainTest() {
+        Sample sample = generateSample("");
+        validator.validateSample(generateValidationMessageEnvelope(sample));
+
+        sample.setAlias("sampleAlias");
+        SingleValidationResultsEnvelope validationResultsEnvelope = validator.validateSample(generateValidationMessageEnvelope(sample));
+
+        Assert.assertEquals(0, cache.stats().hitCount());
+        Assert.assertEquals(SingleValidationResultStatus.Pass, validationResultsEnvelope.getSingleValidationResults().get(0).getValidationStatus());
+    }
+
+    @Test
+    public void cacheSurvivesRestartTest() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "validation-cache.json");
+        Sample sample = generateSample("sampleAlias");
+
+        ValidationResultCache diskCache = new ValidationResultCache(100, 60, snapshot.getPath(), generateDefaultRules());
+        diskCache.loadFromDisk();
+        validator.setValidationResultCache(diskCache);
+        validator.validateSample(generateValidationMessageEnvelope(sample));
+        diskCache.saveToDisk();
+
+        ValidationResultCache restartedCache = new ValidationResultCache(100, 60, snapshot.getPath(), generateDefaultRules());
+        restartedCache.loadFromDisk();
+        validator.setValidationResultCache(restartedCache);
+        SingleValidationResultsEnvelope validationResultsEnvelope = validator.validateSample(generateValidationMessageEnvelope(sample));
+
+        Assert.assertEquals(1, restartedCache.stats().hitCount());
+        Assert.assertEquals(SingleValidationResultStatus.Pass, validationResultsEnvelope.getSingleValidationResults().get(0).getValidationStatus());
+    }
+
+    @Test
+    public void snapshotOfDifferentlyConfiguredRulesIsDiscardedTest() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "validation-cache.json");
+        Sample sample = generateSample("sampleAlias");
+
+        ValidationResultCache diskCache = new ValidationResultCache(100, 60, snapshot.getPath(), generateDefaultRules());
+        validator.setValidationResultCache(diskCache);
+        validator.validateSample(generateValidationMessageEnvelope(sample));
+        diskCache.saveToDisk();
+
+        List<SampleValidationRule> reconfiguredRules = Arrays.asList(
+                new SampleAliasRule(),
+                new SampleReleaseDateRule(),
+                new SampleRelationshipsRule(Collections.singletonList("derived from"))
+        );
+        ValidationResultCache restartedCache = new ValidationResultCache(100, 60, snapshot.getPath(), reconfiguredRules);
+        restartedCache.loadFromDisk();
+        validator.setValidationResultCache(restartedCache);
+        validator.validateSample(generateValidationMessageEnvelope(sample));
+
+        Assert.assertEquals(0, restartedCache.stats().hitCount());
+    }
+
+    @Test
+    public void messageCodesSurviveRestartTest() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "validation-cache.json");
+        Sample sample = generateSample("");
+
+        ValidationResultCache diskCache = new ValidationResultCache(100, 60, snapshot.getPath(), generateDefaultRules());
+        validator.setValidationResultCache(diskCache);
+        SingleValidationResult validated = validator.validateSample(generateValidationMessageEnvelope(sample))
+                .getSingleValidationResults().get(0);
+        diskCache.saveToDisk();
+
+        ValidationResultCache restartedCache = new ValidationResultCache(100, 60, snapshot.getPath(), generateDefaultRules());
+        restartedCache.loadFromDisk();
+        validator.setValidationResultCache(restartedCache);
+        SingleValidationResult restored = validator.validateSample(generateValidationMessageEnvelope(sample))
+                .getSingleValidationResults().get(0);
+
+        Assert.assertEquals(1, restartedCache.stats().hitCount());
+        Assert.assertTrue(restored instanceof CodedValidationResult);
+        Assert.assertEquals(SampleAliasRule.NAME_MISSING, ((CodedValidationResult) restored).getMessageTemplate());
+        Assert.assertEquals(validated.getMessage(), restored.getMessage());
+        Assert.assertEquals(SingleValidationResultStatus.Error, restored.getValidationStatus());
+    }
+}